@@ -8,7 +8,7 @@ import TeamMembers from './TeamMembers';
 import AddUser from './AddUser';
 import { authService } from '../services/authService';
 import { productService, Product } from '../services/productService';
-import { userService, User } from '../services/userService';
+import { userService, User, resolveProfileImageUrl } from '../services/userService';
 import { logService, ApplicationLog } from '../services/logService';
 import Logs from './Logs';
 import ChatList from './ChatList';
@@ -1162,7 +1162,7 @@ export const ProfileImageUploader = ({
   isDarkMode: boolean;
 }) => {
   const [dragActive, setDragActive] = useState(false);
-  const [previewImage, setPreviewImage] = useState<string | undefined>(currentImage);
+  const [previewImage, setPreviewImage] = useState<string | undefined>(resolveProfileImageUrl(currentImage));
   const fileInputRef = useRef<HTMLInputElement>(null);
 
   const handleDrag = (e: React.DragEvent<HTMLDivElement>) => {
@@ -2481,7 +2481,7 @@ const Dashboard = () => {
                 >
                   {user?.profileImage && user.profileImage.length > 0 ? (
                     <img
-                      src={user.profileImage}
+                      src={resolveProfileImageUrl(user.profileImage)}
                       alt={`${user.username}'s profile`}
                       className="w-full h-full object-cover"
                       onError={(e) => {
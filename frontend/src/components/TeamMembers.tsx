@@ -16,7 +16,7 @@ import {
 } from 'lucide-react';
 import { useTheme } from '../contexts/ThemeContext';
 import { useAuth } from '../contexts/AuthContext';
-import { userService, User, UserStatus, Role } from '../services/userService';
+import { userService, User, UserStatus, Role, resolveProfileImageUrl } from '../services/userService';
 import { useNavigate } from 'react-router-dom';
 
 // Helper component to display user avatars
@@ -45,7 +45,7 @@ const UserAvatar = ({ user, size = 'medium', isDarkMode }: {
     }`}>
       {user.profileImage ? (
         <img 
-          src={user.profileImage} 
+          src={resolveProfileImageUrl(user.profileImage)} 
           alt={`${user.username}'s avatar`} 
           className="w-full h-full object-cover"
         />
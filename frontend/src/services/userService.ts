@@ -41,6 +41,10 @@ interface ProfileImageUpdate {
   profileImage: string;
 }
 
+// Profile images are served by the backend under a path relative to its origin (/api/users/{id}/profile-image)
+export const resolveProfileImageUrl = (profileImage?: string): string | undefined =>
+  profileImage && profileImage.startsWith('/') ? `http://localhost:8080${profileImage}` : profileImage;
+
 export const userService = {
   // Get all users (admin only)
   getAllUsers: async (): Promise<User[]> => {
@@ -136,7 +136,7 @@ public class LoggingAspect {
     private boolean isVerboseOutputMethod(String className, String methodName) {
         // Skip SQL queries and large result sets
         return (className.contains("Repository") && !methodName.equals("save")) || 
-               (className.contains("ProductService") && methodName.equals("getAllProducts")) ||
+               (className.contains("ProductService") && (methodName.equals("getAllProducts") || methodName.equals("getProductsPage"))) ||
                methodName.equals("findByUsername");
     }
     
@@ -1,14 +1,14 @@
 package com.example.crud.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
 @Configuration
 @EnableCaching
@@ -17,21 +17,30 @@ public class CacheConfig {
     public static final String USERS_CACHE = "users";
     public static final String PRODUCTS_CACHE = "products";
     public static final String CATEGORIES_CACHE = "categories";
-    
-    @Bean
-    public Caffeine<Object, Object> caffeineConfig() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(60, TimeUnit.MINUTES)
-                .initialCapacity(100)
-                .maximumSize(1000)
-                .recordStats();
-    }
-    
+    public static final String PRINCIPALS_CACHE = "principals";
+    public static final String AUTH_TOKENS_CACHE = "authTokens";
+    public static final String VERIFIED_JWTS_CACHE = "verifiedJwts";
+    public static final String PRODUCT_SEARCHES_CACHE = "productSearches";
+
+    public static final List<String> CACHE_NAMES = List.of(USERS_CACHE, PRODUCTS_CACHE, CATEGORIES_CACHE,
+            PRINCIPALS_CACHE, AUTH_TOKENS_CACHE, VERIFIED_JWTS_CACHE, PRODUCT_SEARCHES_CACHE);
+
+    // Used until CacheTuningService applies the per-cache specs from app.cache.spec.<name>
+    public static final String DEFAULT_SPEC = "initialCapacity=100,maximumSize=1000,expireAfterWrite=60m,recordStats";
+
     @Bean
-    public CacheManager cacheManager(Caffeine<Object, Object> caffeine) {
+    public CaffeineCacheManager cacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(caffeine);
-        cacheManager.setCacheNames(Arrays.asList(USERS_CACHE, PRODUCTS_CACHE, CATEGORIES_CACHE));
+        cacheManager.setCacheSpecification(DEFAULT_SPEC);
+        cacheManager.setCacheNames(CACHE_NAMES);
         return cacheManager;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Resolve this on every use rather than keeping it: CacheTuningService replaces the cache when it
+     * is rebuilt at runtime, and the new instance must be picked up immediately.
+     */
+    public static Cache<Object, Object> nativeCache(CacheManager cacheManager, String cacheName) {
+        return ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache();
+    }
+}
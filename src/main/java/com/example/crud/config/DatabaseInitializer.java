@@ -6,6 +6,7 @@ import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -13,13 +14,20 @@ import org.springframework.transaction.support.TransactionTemplate;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 @Component
+// The id sequences are created by migration V4
+@DependsOn("schemaMigrationRunner")
 public class DatabaseInitializer {
     
     private static final Logger logger = LoggerFactory.getLogger(DatabaseInitializer.class);
     
+    // Must match allocationSize of the @SequenceGenerator on Product and User
+    private static final int ID_ALLOCATION_SIZE = 50;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -29,6 +37,33 @@ public class DatabaseInitializer {
     @Autowired
     private DataSource dataSource;
     
+    /**
+     * Moves the pooled id sequences past the ids already in use. Rows created while the tables used
+     * IDENTITY columns are not known to the sequences; one allocation block of headroom keeps the
+     * first block Hibernate reserves above them whichever end of the block the sequence value marks.
+     * A sequence that cannot be restarted stops the application, since inserts would then reuse ids.
+     */
+    @PostConstruct
+    public void alignIdSequences() {
+        alignSequence("products", "products_seq");
+        alignSequence("users", "users_seq");
+    }
+    
+    private void alignSequence(String table, String sequence) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            
+            rs.next();
+            long restartWith = rs.getLong(1) + ID_ALLOCATION_SIZE + 1;
+            stmt.executeUpdate("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+            logger.info("Restarted {} at {}", sequence, restartWith);
+            
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not align id sequence " + sequence + " with " + table, e);
+        }
+    }
+    
     @PostConstruct
     public void initializeUserStatuses() {
         logger.info("Initializing user statuses for existing users...");
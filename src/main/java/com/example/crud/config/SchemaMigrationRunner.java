@@ -0,0 +1,191 @@
+package com.example.crud.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned SQL scripts in {@code db/migration} ({@code V<version>__<description>.sql})
+ * once each, in version order, and records them in {@code schema_migrations}.
+ *
+ * Runs after Hibernate has initialized the schema, so the scripts see the tables created by
+ * {@code ddl-auto}; with {@code create}/{@code create-drop} those tables are new on every start and the
+ * history is reset. A database without migration history is
+ * baselined at {@code app.schema-migrations.baseline-version}: older scripts predate this runner and
+ * were applied by hand. Later scripts run against both existing databases and schemas Hibernate has
+ * just generated, so they are written to be idempotent. Applied scripts must not change; a checksum
+ * mismatch or a failing script stops the application.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrationRunner.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String BASELINE_DESCRIPTION = "<< baseline >>";
+
+    private static final String CREATE_HISTORY_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INT PRIMARY KEY, description VARCHAR(200) NOT NULL, checksum VARCHAR(64) NOT NULL, " +
+            "installed_on TIMESTAMP NOT NULL, execution_ms BIGINT NOT NULL)";
+
+    private static final String SELECT_HISTORY_SQL =
+            "SELECT version, description, checksum, installed_on, execution_ms FROM schema_migrations ORDER BY version";
+
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO schema_migrations (version, description, checksum, installed_on, execution_ms) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.schema-migrations.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.schema-migrations.locations:classpath*:db/migration/V*__*.sql}")
+    private String locations;
+
+    @Value("${app.schema-migrations.baseline-version:2}")
+    private int baselineVersion;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @PostConstruct
+    public void migrate() throws IOException {
+        if (!enabled) {
+            logger.info("Schema migrations are disabled");
+            return;
+        }
+        jdbcTemplate.execute(CREATE_HISTORY_TABLE_SQL);
+        if ("create".equals(ddlAuto) || "create-drop".equals(ddlAuto)) {
+            // Hibernate has just recreated the tables (and dropped their indexes), so nothing is applied yet
+            jdbcTemplate.update("DELETE FROM schema_migrations");
+        }
+
+        Map<Integer, String> appliedChecksums = new HashMap<>();
+        int baseline = 0;
+        for (Map<String, Object> row : getAppliedMigrations()) {
+            int version = ((Number) row.get("version")).intValue();
+            if (BASELINE_DESCRIPTION.equals(row.get("description"))) {
+                baseline = version;
+            } else {
+                appliedChecksums.put(version, (String) row.get("checksum"));
+            }
+        }
+        if (appliedChecksums.isEmpty() && baseline == 0 && baselineVersion > 0) {
+            jdbcTemplate.update(INSERT_HISTORY_SQL, baselineVersion, BASELINE_DESCRIPTION, "",
+                    Timestamp.valueOf(LocalDateTime.now()), 0L);
+            baseline = baselineVersion;
+            logger.info("Baselined schema migrations at version {}", baselineVersion);
+        }
+
+        int applied = 0;
+        for (Migration migration : findMigrations()) {
+            String appliedChecksum = appliedChecksums.get(migration.version);
+            if (appliedChecksum != null) {
+                if (!appliedChecksum.equals(migration.checksum)) {
+                    throw new IllegalStateException("Schema migration V" + migration.version +
+                            " was changed after it was applied (" + migration.resource.getFilename() + ")");
+                }
+                continue;
+            }
+            if (migration.version <= baseline) {
+                continue;
+            }
+            apply(migration);
+            applied++;
+        }
+        logger.info("Schema is up to date, {} migration(s) applied", applied);
+    }
+
+    public List<Map<String, Object>> getAppliedMigrations() {
+        return jdbcTemplate.queryForList(SELECT_HISTORY_SQL);
+    }
+
+    private void apply(Migration migration) {
+        long started = System.currentTimeMillis();
+        // H2 commits DDL implicitly, so the history row is only a marker written after the script succeeded
+        try (Connection conn = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(conn, new EncodedResource(migration.resource, StandardCharsets.UTF_8));
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_HISTORY_SQL)) {
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.setString(3, migration.checksum);
+                stmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setLong(5, System.currentTimeMillis() - started);
+                stmt.executeUpdate();
+            }
+        } catch (SQLException | RuntimeException e) {
+            throw new IllegalStateException("Schema migration V" + migration.version + " (" +
+                    migration.resource.getFilename() + ") failed", e);
+        }
+        logger.info("Applied schema migration V{} {} in {} ms", migration.version, migration.description,
+                System.currentTimeMillis() - started);
+    }
+
+    private List<Migration> findMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        Map<Integer, String> seen = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locations)) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename() == null ? "" : resource.getFilename());
+            if (!matcher.matches()) {
+                continue;
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            String previous = seen.put(version, resource.getFilename());
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate schema migration version " + version + ": " +
+                        previous + " and " + resource.getFilename());
+            }
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), checksum(resource), resource));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    private static String checksum(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(in.readAllBytes()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Migration(int version, String description, String checksum, Resource resource) {
+    }
+}
@@ -1,14 +1,25 @@
 package com.example.crud.controller;
 
+import com.example.crud.config.SchemaMigrationRunner;
 import com.example.crud.payload.response.MessageResponse;
+import com.example.crud.security.BoundedPasswordEncoder;
 import com.example.crud.service.DataMigrationService;
+import com.example.crud.service.EncryptionMigrationService;
+import com.example.crud.service.LogService;
+import com.example.crud.service.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/admin")
 @PreAuthorize("hasRole('ADMIN')")
@@ -17,6 +28,21 @@ public class AdminController {
     @Autowired
     private DataMigrationService dataMigrationService;
 
+    @Autowired
+    private EncryptionMigrationService encryptionMigrationService;
+
+    @Autowired
+    private LogService logService;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SchemaMigrationRunner schemaMigrationRunner;
+
     @PostMapping("/migrate-data")
     public ResponseEntity<?> migrateData() {
         try {
@@ -28,6 +54,23 @@ public class AdminController {
         }
     }
 
+    /**
+     * Starts a background re-encryption run, e.g. after rotating app.encryption.secret
+     */
+    @PostMapping("/encryption-migration")
+    public ResponseEntity<Map<String, Object>> startEncryptionMigration(
+            @RequestParam(defaultValue = "false") boolean restart) {
+        if (!encryptionMigrationService.startAsync(restart)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(encryptionMigrationService.getProgress());
+        }
+        return ResponseEntity.accepted().body(encryptionMigrationService.getProgress());
+    }
+
+    @GetMapping("/encryption-migration")
+    public ResponseEntity<Map<String, Object>> getEncryptionMigrationProgress() {
+        return ResponseEntity.ok(encryptionMigrationService.getProgress());
+    }
+
     @PostMapping("/migrate-product-versions")
     public ResponseEntity<?> migrateProductVersions() {
         try {
@@ -38,4 +81,32 @@ public class AdminController {
                     .body(new MessageResponse("Error during product version migration: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/password-verification/stats")
+    public ResponseEntity<Map<String, Object>> getPasswordVerificationStats() {
+        return ResponseEntity.ok(passwordEncoder.getStats());
+    }
+
+    @GetMapping("/schema-migrations")
+    public ResponseEntity<List<Map<String, Object>>> getSchemaMigrations() {
+        return ResponseEntity.ok(schemaMigrationRunner.getAppliedMigrations());
+    }
+
+    @GetMapping("/product-search/stats")
+    public ResponseEntity<Map<String, Object>> getProductSearchStats() {
+        return ResponseEntity.ok(productSearchIndex.getStats());
+    }
+
+    @PostMapping("/product-search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildProductSearchIndex() {
+        if (!productSearchIndex.rebuild()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(productSearchIndex.getStats());
+        }
+        return ResponseEntity.ok(productSearchIndex.getStats());
+    }
+
+    @GetMapping("/audit-log/stats")
+    public ResponseEntity<Map<String, Object>> getAuditLogStats() {
+        return ResponseEntity.ok(logService.getWriterStats());
+    }
+}
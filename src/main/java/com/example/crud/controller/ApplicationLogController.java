@@ -9,6 +9,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/application-logs")
@@ -47,6 +48,12 @@ public class ApplicationLogController {
         return ResponseEntity.ok(applicationLogService.searchLogs(keyword));
     }
 
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getWriterStats() {
+        return ResponseEntity.ok(applicationLogService.getWriterStats());
+    }
+
     @PostMapping("/test")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> generateTestLogs() {
@@ -9,6 +9,7 @@ import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -33,8 +34,10 @@ import com.example.crud.payload.response.JwtResponse;
 import com.example.crud.payload.response.MessageResponse;
 import com.example.crud.repository.UserRepository;
 import com.example.crud.security.jwt.JwtUtils;
+import com.example.crud.security.services.LoginFailureCooldown;
 import com.example.crud.security.services.UserDetailsImpl;
 import com.example.crud.service.UserService;
+import com.example.crud.service.LoginAttemptService;
 import com.example.crud.service.MfaService;
 import com.example.crud.payload.request.MfaSetupRequest;
 import com.example.crud.payload.response.MfaSetupResponse;
@@ -68,18 +71,28 @@ public class AuthController {
     @Autowired
     private UserSessionService userSessionService;
 
+    @Autowired
+    private LoginFailureCooldown loginFailureCooldown;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        // Check if the account is expired before attempting authentication
-        User userForExpiryCheck = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
-        if (userForExpiryCheck != null && userForExpiryCheck.getAccountExpiresAt() != null &&
-            userForExpiryCheck.getAccountExpiresAt().isBefore(java.time.LocalDateTime.now())) {
+        // Refuse repeated failures from memory, before any database access or password hashing
+        if (loginFailureCooldown.isCoolingDown(loginRequest.getUsername())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginFailureCooldown.getCooldownSeconds()))
+                    .body(new MessageResponse("Too many failed sign-in attempts. Please try again later."));
+        }
+        
+        // Expiry and lock state come from the cached principal, no extra lookups
+        LoginAttemptService.AccountState accountState = loginAttemptService.checkAccount(loginRequest.getUsername());
+        if (accountState == LoginAttemptService.AccountState.EXPIRED) {
             return ResponseEntity.badRequest()
                 .body(new MessageResponse("Account expired. Please contact an administrator."));
         }
-        
-        // Check if the account is locked before attempting authentication
-        if (userService.isAccountLocked(loginRequest.getUsername())) {
+        if (accountState == LoginAttemptService.AccountState.LOCKED) {
             return ResponseEntity.badRequest()
                     .body(new MessageResponse("Account is locked due to too many failed login attempts. Please contact an administrator."));
         }
@@ -107,7 +120,8 @@ public class AuthController {
             }
 
             // Reset failed login attempts on successful login
-            userService.resetFailedLoginAttempts(loginRequest.getUsername());
+            userService.recordSuccessfulLogin(loginRequest.getUsername());
+            loginFailureCooldown.reset(loginRequest.getUsername());
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtUtils.generateJwtToken(authentication);
@@ -119,14 +133,12 @@ public class AuthController {
             return ResponseEntity.ok(new JwtResponse(jwt,
                     userDetails.getId(),
                     userDetails.getUsername(),
-                    userDetails.getEmail(),
+                    user.getEmail(),
                     roles));
         } catch (BadCredentialsException e) {
-            // Increment failed login attempts
-            userService.incrementFailedLoginAttempts(loginRequest.getUsername());
-            
-            // Check if the account is now locked after incrementing
-            if (userService.isAccountLocked(loginRequest.getUsername())) {
+            // Count the failure in memory; the account is locked once it reaches the threshold
+            loginFailureCooldown.recordFailure(loginRequest.getUsername());
+            if (userService.recordFailedLogin(loginRequest.getUsername())) {
                 return ResponseEntity.badRequest()
                         .body(new MessageResponse("Account has been locked due to too many failed login attempts. Please contact an administrator."));
             }
@@ -146,7 +158,7 @@ public class AuthController {
                     .body(new MessageResponse("Error: Username is already taken!"));
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+        if (userService.existsByEmail(signUpRequest.getEmail())) {
             return ResponseEntity
                     .badRequest()
                     .body(new MessageResponse("Error: Email is already in use!"));
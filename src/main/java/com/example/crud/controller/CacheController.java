@@ -1,6 +1,7 @@
 package com.example.crud.controller;
 
 import com.example.crud.config.CacheConfig;
+import com.example.crud.service.CacheTuningService;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,10 +20,12 @@ import java.util.concurrent.TimeUnit;
 public class CacheController {
 
     private final CacheManager cacheManager;
+    private final CacheTuningService cacheTuningService;
     
     @Autowired
-    public CacheController(CacheManager cacheManager) {
+    public CacheController(CacheManager cacheManager, CacheTuningService cacheTuningService) {
         this.cacheManager = cacheManager;
+        this.cacheTuningService = cacheTuningService;
     }
     
     @GetMapping("/metrics")
@@ -30,15 +33,12 @@ public class CacheController {
         Map<String, Object> metrics = new HashMap<>();
         List<Map<String, Object>> caches = new ArrayList<>();
         
-        Collection<String> cacheNames = Arrays.asList(
-            CacheConfig.USERS_CACHE, 
-            CacheConfig.PRODUCTS_CACHE, 
-            CacheConfig.CATEGORIES_CACHE
-        );
+        Collection<String> cacheNames = CacheConfig.CACHE_NAMES;
         
         for (String cacheName : cacheNames) {
             Map<String, Object> cacheMetrics = new HashMap<>();
             cacheMetrics.put("name", cacheName);
+            cacheMetrics.put("spec", cacheTuningService.getSpec(cacheName));
             
             // Get the specific cache
             org.springframework.cache.Cache springCache = cacheManager.getCache(cacheName);
@@ -76,11 +76,7 @@ public class CacheController {
     public ResponseEntity<Map<String, String>> clearAllCaches() {
         Map<String, String> response = new HashMap<>();
         
-        Collection<String> cacheNames = Arrays.asList(
-            CacheConfig.USERS_CACHE, 
-            CacheConfig.PRODUCTS_CACHE, 
-            CacheConfig.CATEGORIES_CACHE
-        );
+        Collection<String> cacheNames = CacheConfig.CACHE_NAMES;
         
         for (String cacheName : cacheNames) {
             org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
@@ -111,29 +107,66 @@ public class CacheController {
         }
     }
     
+    @GetMapping("/config")
+    public ResponseEntity<Map<String, String>> getCacheConfig() {
+        return ResponseEntity.ok(cacheTuningService.getSpecs());
+    }
+    
+    /**
+     * Rebuilds the named cache with the given options applied on top of its current spec.
+     * Durations are in milliseconds; {@code spec} replaces the whole spec instead.
+     * The hottest entries of the old cache are carried over into the rebuilt one.
+     */
     @PutMapping("/config/{cacheName}")
     public ResponseEntity<Map<String, Object>> updateCacheConfig(
             @PathVariable String cacheName,
             @RequestParam(required = false) Long expireAfterWrite,
-            @RequestParam(required = false) Integer maximumSize) {
+            @RequestParam(required = false) Long expireAfterAccess,
+            @RequestParam(required = false) Long refreshAfterWrite,
+            @RequestParam(required = false) Long maximumSize,
+            @RequestParam(required = false) Long maximumWeight,
+            @RequestParam(required = false) String spec) {
         
         Map<String, Object> response = new HashMap<>();
         
-        // For now, just return a notification that the cache would be reconfigured
-        // In a real implementation, you would need a custom mechanism to update
-        // cache configuration at runtime
-        
-        response.put("name", cacheName);
-        
-        if (expireAfterWrite != null) {
-            response.put("expireAfterWrite", TimeUnit.MILLISECONDS.toMinutes(expireAfterWrite) + " minutes");
+        Map<String, String> overrides = new LinkedHashMap<>();
+        if (maximumSize != null) {
+            overrides.put("maximumSize", String.valueOf(maximumSize));
+        }
+        if (maximumWeight != null) {
+            overrides.put("maximumWeight", String.valueOf(maximumWeight));
         }
         
-        if (maximumSize != null) {
-            response.put("maximumSize", maximumSize);
+        int carriedOver;
+        try {
+            putDuration(overrides, "expireAfterWrite", expireAfterWrite);
+            putDuration(overrides, "expireAfterAccess", expireAfterAccess);
+            putDuration(overrides, "refreshAfterWrite", refreshAfterWrite);
+            carriedOver = spec != null
+                    ? cacheTuningService.replaceSpec(cacheName, spec)
+                    : cacheTuningService.reconfigure(cacheName, overrides);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            response.put("status", "error");
+            response.put("message", ex.getMessage());
+            return ResponseEntity.badRequest().body(response);
         }
         
-        response.put("message", "Cache configuration updated (Note: In a real implementation, this would require custom runtime configuration handling)");
+        response.put("status", "success");
+        response.put("name", cacheName);
+        response.put("spec", cacheTuningService.getSpec(cacheName));
+        response.put("entriesCarriedOver", carriedOver);
+        response.put("message", "Cache '" + cacheName + "' has been rebuilt");
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+    
+    // CaffeineSpec durations need a unit; whole seconds keep the spec readable
+    private void putDuration(Map<String, String> overrides, String option, Long millis) {
+        if (millis == null) {
+            return;
+        }
+        if (millis <= 0) {
+            throw new IllegalArgumentException(option + " must be positive");
+        }
+        overrides.put(option, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis)) + "s");
+    }
+}
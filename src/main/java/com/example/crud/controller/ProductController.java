@@ -1,22 +1,32 @@
 package com.example.crud.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.math.BigDecimal;
 
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.crud.payload.request.ProductRequest;
 import com.example.crud.payload.response.MessageResponse;
+import com.example.crud.payload.response.ProductImportResponse;
 import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.repository.ProductSearchCriteria;
 import com.example.crud.security.services.UserDetailsImpl;
+import com.example.crud.service.ProductExportService;
+import com.example.crud.service.ProductImportService;
 import com.example.crud.service.ProductService;
 import com.example.crud.service.ApplicationLogService;
 
@@ -28,11 +38,44 @@ public class ProductController {
     
     @Autowired
     private ApplicationLogService applicationLogService;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ProductExportService productExportService;
 
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        // Without paging parameters keep the legacy full listing for existing clients
+        if (after == null && limit == null) {
+            List<ProductResponse> products = productService.getAllProducts();
+            return ResponseEntity.ok(products);
+        }
+        return ResponseEntity.ok(productService.getProductsPage(after, limit));
+    }
+
+    /**
+     * Streams the whole catalog as NDJSON (default) or CSV without building it in memory
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ProductExportService.Format exportFormat = ProductExportService.Format.fromParameter(format);
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        
+        StreamingResponseBody body = output -> {
+            long exported = productExportService.export(exportFormat, output);
+            applicationLogService.logInfo("User '" + username + "' exported " + exported + " products as " + format);
+        };
+        
+        boolean csv = exportFormat == ProductExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -61,6 +104,30 @@ public class ProductController {
         return new ResponseEntity<>(newProduct, HttpStatus.CREATED);
     }
 
+    /**
+     * Imports products from a CSV (with header row) or NDJSON body, streamed row by row.
+     * Returns the number of imported rows and the errors of rejected rows by input line.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson", "application/ndjson"})
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) Integer batchSize,
+            InputStream body) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        ProductImportService.Format format = contentType.startsWith("text/csv")
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        
+        ProductImportResponse result = productImportService.importProducts(
+                body, format, userDetails.getId(), userDetails.getUsername(), batchSize);
+        
+        applicationLogService.logInfo("User '" + userDetails.getUsername() + "' bulk imported " + 
+            result.getImported() + " products (" + result.getFailed() + " rows rejected)");
+        
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @productSecurity.isProductCreator(#id)")
     public ResponseEntity<ProductResponse> updateProduct(@PathVariable Long id,
@@ -97,25 +164,45 @@ public class ProductController {
         return ResponseEntity.ok(new MessageResponse("Product deleted successfully!"));
     }
 
+    /**
+     * Without paging parameters the full match list is returned as before; with any of after, limit,
+     * sort, direction or includeTotal the result is a keyset-paginated page.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> searchProducts(
+    public ResponseEntity<?> searchProducts(
             @RequestParam(required = false) String namePattern,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Integer minQuantity,
             @RequestParam(required = false) Integer maxQuantity,
-            @RequestParam(required = false) String createdByUsername) {
-        
-        List<ProductResponse> products = productService.searchProducts(
-                namePattern,
-                minPrice,
-                maxPrice,
-                minQuantity,
-                maxQuantity,
-                createdByUsername
-        );
+            @RequestParam(required = false) String createdByUsername,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Boolean includeTotal) {
         
-        return ResponseEntity.ok(products);
+        if (after == null && limit == null && sort == null && direction == null && includeTotal == null) {
+            List<ProductResponse> products = productService.searchProducts(
+                    namePattern,
+                    minPrice,
+                    maxPrice,
+                    minQuantity,
+                    maxQuantity,
+                    createdByUsername
+            );
+            return ResponseEntity.ok(products);
+        }
+
+        ProductSearchCriteria criteria = new ProductSearchCriteria();
+        criteria.setNamePattern(namePattern);
+        criteria.setMinPrice(minPrice);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setMinQuantity(minQuantity);
+        criteria.setMaxQuantity(maxQuantity);
+        criteria.setCreatedByUsername(createdByUsername);
+        return ResponseEntity.ok(productService.searchProductsPage(
+                criteria, sort, direction, after, limit, Boolean.TRUE.equals(includeTotal)));
     }
 
     @PostMapping("/{id}/lock")
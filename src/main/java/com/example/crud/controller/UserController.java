@@ -1,13 +1,24 @@
 package com.example.crud.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.crud.model.User;
 import com.example.crud.payload.request.AdminPasswordResetRequest;
@@ -16,6 +27,8 @@ import com.example.crud.payload.request.UpdateRolesRequest;
 import com.example.crud.payload.request.UpdateUserStatusRequest;
 import com.example.crud.payload.request.ProfileImageRequest;
 import com.example.crud.payload.response.MessageResponse;
+import com.example.crud.repository.UserRepository.ProfileImageRef;
+import com.example.crud.service.ProfileImageStore;
 import com.example.crud.service.UserService;
 import com.example.crud.service.ApplicationLogService;
 
@@ -30,6 +43,9 @@ public class UserController {
     @Autowired
     private ApplicationLogService applicationLogService;
 
+    @Autowired
+    private ProfileImageStore profileImageStore;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<User>> getAllUsers() {
@@ -109,11 +125,64 @@ public class UserController {
         return ResponseEntity.ok(new MessageResponse("User status updated successfully"));
     }
 
-    @PutMapping("/{id}/profile-image")
+    /**
+     * Streams the profile image. The image URL carries its hash, so a request for the current
+     * version may be cached indefinitely; other requests revalidate with the ETag.
+     */
+    @GetMapping("/{id}/profile-image")
+    public ResponseEntity<Resource> getProfileImage(
+            @PathVariable Long id,
+            @RequestParam(name = "v", required = false) String version,
+            WebRequest request) {
+        ProfileImageRef image = userService.getProfileImage(id).orElse(null);
+        Path file = image == null ? null : profileImageStore.find(image.getHash()).orElse(null);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CacheControl cacheControl = image.getHash().equals(version)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache();
+        String etag = "\"" + image.getHash() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        // Images stored before the upload checks may have any type; those are only offered as a download
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header("X-Content-Type-Options", "nosniff");
+        if (ProfileImageStore.isAcceptedType(image.getContentType())) {
+            response.contentType(MediaType.parseMediaType(image.getContentType()));
+        } else {
+            response.contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment");
+        }
+        return response.body(new FileSystemResource(file));
+    }
+
+    /**
+     * Uploads the profile image as the raw request body, e.g. {@code Content-Type: image/png}.
+     * PNG, JPEG, GIF and WebP are accepted, recognised by their content.
+     */
+    @PutMapping(value = "/{id}/profile-image", consumes = "image/*")
+    @PreAuthorize("@userSecurity.isCurrentUser(#id)")
+    public ResponseEntity<?> uploadProfileImage(
+            @PathVariable Long id,
+            InputStream content) throws IOException {
+        User updatedUser = userService.updateProfileImage(id, content);
+        applicationLogService.logInfo("User '" + updatedUser.getUsername() + "' updated their profile image");
+        return ResponseEntity.ok(updatedUser);
+    }
+
+    /**
+     * Uploads the profile image as a base64 data URL inside JSON
+     */
+    @PutMapping(value = "/{id}/profile-image", consumes = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("@userSecurity.isCurrentUser(#id)")
     public ResponseEntity<?> updateProfileImage(
             @PathVariable Long id,
-            @Valid @RequestBody ProfileImageRequest profileImageRequest) {
+            @Valid @RequestBody ProfileImageRequest profileImageRequest) throws IOException {
         User updatedUser = userService.updateProfileImage(id, profileImageRequest.getProfileImage());
         applicationLogService.logInfo("User '" + updatedUser.getUsername() + "' updated their profile image");
         return ResponseEntity.ok(new MessageResponse("Profile image updated successfully"));
@@ -3,6 +3,7 @@ package com.example.crud.exception;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -46,6 +47,20 @@ GlobalExceptionHandler {
                 .body(new MessageResponse(ex.getMessage()));
     }
 
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<MessageResponse> handleInvalidRequestParameterException(InvalidRequestParameterException ex) {
+        return ResponseEntity.badRequest()
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidProfileImageException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<MessageResponse> handleInvalidProfileImageException(InvalidProfileImageException ex) {
+        return ResponseEntity.badRequest()
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ResponseEntity<MessageResponse> handleAccessDeniedException(AccessDeniedException ex) {
@@ -53,6 +68,22 @@ GlobalExceptionHandler {
                 .body(new MessageResponse("You don't have permission to access this resource"));
     }
 
+    @ExceptionHandler(PasswordVerificationRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<MessageResponse> handlePasswordVerificationRejectedException(PasswordVerificationRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(SearchIndexUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<MessageResponse> handleSearchIndexUnavailableException(SearchIndexUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ResponseEntity<MessageResponse> globalExceptionHandler(Exception ex, WebRequest request) {
@@ -0,0 +1,13 @@
+package com.example.crud.exception;
+
+/**
+ * Thrown for a malformed cursor or an unsupported sort or direction parameter of a product listing
+ * or search; it is answered with 400.
+ */
+public class InvalidPaginationException extends InvalidRequestParameterException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidPaginationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.crud.exception;
+
+/**
+ * Thrown when an uploaded profile image is empty, too large or not one of the accepted image
+ * formats; it is answered with 400.
+ */
+public class InvalidProfileImageException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidProfileImageException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.crud.exception;
+
+/**
+ * Thrown for a request parameter whose value is not supported, such as an unknown export format;
+ * it is answered with 400. More specific cases, such as {@link InvalidPaginationException}, extend it.
+ */
+public class InvalidRequestParameterException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRequestParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.crud.exception;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * Thrown when a password cannot be verified because the verification pool is saturated.
+ * Extends {@link InternalAuthenticationServiceException} so the provider manager rethrows it
+ * immediately instead of trying other providers; it is answered with 503.
+ */
+public class PasswordVerificationRejectedException extends InternalAuthenticationServiceException {
+    public PasswordVerificationRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordVerificationRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
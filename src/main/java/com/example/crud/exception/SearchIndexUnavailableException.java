@@ -0,0 +1,20 @@
+package com.example.crud.exception;
+
+/**
+ * Thrown when a search needs the product search index while it is being rebuilt; it is answered
+ * with 503 and a {@code Retry-After} of the expected remaining rebuild time.
+ */
+public class SearchIndexUnavailableException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public SearchIndexUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
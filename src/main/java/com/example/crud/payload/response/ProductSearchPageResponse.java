@@ -0,0 +1,21 @@
+package com.example.crud.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchPageResponse {
+    private List<ProductResponse> items;
+    private String nextCursor;
+    private int limit;
+    private boolean hasMore;
+    private String sort;
+    private String direction;
+    // Only computed when requested with includeTotal=true, null otherwise
+    private Long total;
+}
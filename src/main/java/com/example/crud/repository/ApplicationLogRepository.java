@@ -1,6 +1,7 @@
 package com.example.crud.repository;
 
 import com.example.crud.model.ApplicationLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -13,6 +14,8 @@ public interface ApplicationLogRepository extends JpaRepository<ApplicationLog,
     @Query("SELECT a FROM ApplicationLog a ORDER BY a.timestamp DESC")
     List<ApplicationLog> findAllOrderByTimestampDesc();
     
+    List<ApplicationLog> findAllByOrderByIdDesc(Pageable pageable);
+    
     List<ApplicationLog> findByLevelOrderByTimestampDesc(String level);
     
     List<ApplicationLog> findByLoggerOrderByTimestampDesc(String logger);
@@ -7,10 +7,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
+import java.util.List;
 
 @Repository
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
     boolean existsByToken(String token);
+
+    List<BlacklistedToken> findByExpiryDateAfter(Date date);
     
     @Modifying
     @Query("DELETE FROM BlacklistedToken b WHERE b.expiryDate < ?1")
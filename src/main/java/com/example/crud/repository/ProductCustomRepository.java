@@ -1,11 +1,64 @@
 package com.example.crud.repository;
 
-import com.example.crud.model.Product;
+import com.example.crud.payload.response.ProductResponse;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductCustomRepository {
-    List<Product> findProductsByCustomCriteria(
+    /*
+     * Read-only projections: the product row plus creator/updater usernames are fetched
+     * in a single query instead of lazily initializing the User associations per row.
+     */
+
+    Optional<ProductResponse> findProductSummaryById(Long id);
+
+    List<ProductResponse> findAllProductSummaries();
+
+    List<ProductResponse> findProductSummariesAfter(Long afterId, int limit);
+
+    List<ProductResponse> findProductSummariesByCreator(String username);
+
+    /**
+     * Forward-only stream of all product summaries in id order; must be consumed and closed
+     * inside a transaction.
+     */
+    Stream<ProductResponse> streamProductSummaries(int fetchSize);
+
+    /**
+     * Summaries of the given products that satisfy the (nullable) price and quantity bounds, in no
+     * particular order.
+     */
+    List<ProductResponse> findProductSummariesByIds(
+        Collection<Long> ids,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Integer minQuantity,
+        Integer maxQuantity
+    );
+
+    long countProductsByIds(
+        Collection<Long> ids,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Integer minQuantity,
+        Integer maxQuantity
+    );
+
+    /**
+     * One page of a search ordered by {@code criteria.sort} (not {@code RELEVANCE}), starting after the
+     * keyset position of the criteria. The name pattern is matched with a substring scan.
+     */
+    List<ProductResponse> findProductSummaryPage(ProductSearchCriteria criteria, int limit);
+
+    /**
+     * Number of products matching the filters of {@code criteria}, ignoring its keyset position.
+     */
+    long countProducts(ProductSearchCriteria criteria);
+
+    List<ProductResponse> searchProductSummaries(
         String namePattern,
         BigDecimal minPrice,
         BigDecimal maxPrice,
@@ -13,4 +66,4 @@ public interface ProductCustomRepository {
         Integer maxQuantity,
         String createdByUsername
     );
-} 
\ No newline at end of file
+}
@@ -1,25 +1,142 @@
 package com.example.crud.repository;
 
-import com.example.crud.model.Product;
 import com.example.crud.model.QProduct;
 import com.example.crud.model.QUser;
+import com.example.crud.payload.response.ProductResponse;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public class ProductCustomRepositoryImpl implements ProductCustomRepository {
 
+    private static final QProduct product = QProduct.product;
+    private static final QUser creator = new QUser("creator");
+    private static final QUser updater = new QUser("updater");
+
     @PersistenceContext
     private EntityManager entityManager;
 
     @Override
-    public List<Product> findProductsByCustomCriteria(
+    public Optional<ProductResponse> findProductSummaryById(Long id) {
+        return Optional.ofNullable(summaryQuery()
+                .where(product.id.eq(id))
+                .fetchOne());
+    }
+
+    @Override
+    public List<ProductResponse> findAllProductSummaries() {
+        return summaryQuery()
+                .orderBy(product.id.asc())
+                .fetch();
+    }
+
+    @Override
+    public List<ProductResponse> findProductSummariesAfter(Long afterId, int limit) {
+        JPAQuery<ProductResponse> query = summaryQuery();
+        if (afterId != null) {
+            query.where(product.id.gt(afterId));
+        }
+        return query
+                .orderBy(product.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public List<ProductResponse> findProductSummariesByCreator(String username) {
+        return summaryQuery()
+                .where(creator.username.eq(username))
+                .orderBy(product.id.asc())
+                .fetch();
+    }
+
+    @Override
+    public List<ProductResponse> findProductSummariesByIds(
+            Collection<Long> ids,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Integer minQuantity,
+            Integer maxQuantity) {
+
+        BooleanBuilder whereClause = buildCriteria(null, minPrice, maxPrice, minQuantity, maxQuantity);
+        whereClause.and(product.id.in(ids));
+
+        return summaryQuery()
+                .where(whereClause)
+                .fetch();
+    }
+
+    @Override
+    public long countProductsByIds(
+            Collection<Long> ids,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Integer minQuantity,
+            Integer maxQuantity) {
+
+        BooleanBuilder whereClause = buildCriteria(null, minPrice, maxPrice, minQuantity, maxQuantity);
+        whereClause.and(product.id.in(ids));
+
+        Long count = new JPAQueryFactory(entityManager)
+                .select(product.count())
+                .from(product)
+                .where(whereClause)
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public List<ProductResponse> findProductSummaryPage(ProductSearchCriteria criteria, int limit) {
+        ComparableExpressionBase<?> column = sortColumn(criteria.getSort());
+        boolean descending = criteria.isDescending();
+
+        BooleanBuilder whereClause = searchCriteria(criteria);
+        if (criteria.getAfterId() != null) {
+            whereClause.and(afterKeyset(column, criteria.getAfterValue(), criteria.getAfterId(), descending));
+        }
+
+        // Nulls sort as the lowest value, matching the keyset predicate
+        OrderSpecifier<?> sortOrder = descending ? column.desc().nullsLast() : column.asc().nullsFirst();
+        OrderSpecifier<?> idOrder = descending ? product.id.desc() : product.id.asc();
+        return summaryQuery()
+                .where(whereClause)
+                .orderBy(sortOrder, idOrder)
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public long countProducts(ProductSearchCriteria criteria) {
+        Long count = new JPAQueryFactory(entityManager)
+                .select(product.count())
+                .from(product)
+                .leftJoin(product.createdBy, creator)
+                .where(searchCriteria(criteria))
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public List<ProductResponse> searchProductSummaries(
             String namePattern,
             BigDecimal minPrice,
             BigDecimal maxPrice,
@@ -27,9 +144,89 @@ public class ProductCustomRepositoryImpl implements ProductCustomRepository {
             Integer maxQuantity,
             String createdByUsername) {
 
+        BooleanBuilder whereClause = buildCriteria(namePattern, minPrice, maxPrice, minQuantity, maxQuantity);
+
+        if (createdByUsername != null && !createdByUsername.trim().isEmpty()) {
+            whereClause.and(creator.username.eq(createdByUsername));
+        }
+
+        return summaryQuery()
+                .where(whereClause)
+                .orderBy(product.name.asc())
+                .fetch();
+    }
+
+    @Override
+    public Stream<ProductResponse> streamProductSummaries(int fetchSize) {
+        // DTO rows are not managed entities, so the persistence context stays empty while streaming
+        return summaryQuery()
+                .orderBy(product.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
+    private JPAQuery<ProductResponse> summaryQuery() {
         JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
-        QProduct product = QProduct.product;
-        QUser user = QUser.user;
+        return queryFactory
+                .select(Projections.constructor(ProductResponse.class,
+                        product.id,
+                        product.version,
+                        product.name,
+                        product.description,
+                        product.price,
+                        product.quantity,
+                        creator.username,
+                        updater.username,
+                        product.createdWhen,
+                        product.updatedWhen))
+                .from(product)
+                .leftJoin(product.createdBy, creator)
+                .leftJoin(product.updatedBy, updater);
+    }
+
+    private BooleanBuilder searchCriteria(ProductSearchCriteria criteria) {
+        BooleanBuilder whereClause = buildCriteria(criteria.getNamePattern(), criteria.getMinPrice(),
+                criteria.getMaxPrice(), criteria.getMinQuantity(), criteria.getMaxQuantity());
+        if (criteria.getCreatedByUsername() != null && !criteria.getCreatedByUsername().trim().isEmpty()) {
+            whereClause.and(creator.username.eq(criteria.getCreatedByUsername()));
+        }
+        return whereClause;
+    }
+
+    private static ComparableExpressionBase<?> sortColumn(ProductSearchCriteria.SortKey sort) {
+        return switch (sort) {
+            case NAME -> product.name;
+            case PRICE -> product.price;
+            case QUANTITY -> product.quantity;
+            case UPDATED_WHEN -> product.updatedWhen;
+            case RELEVANCE -> throw new IllegalArgumentException("Relevance ordering needs the search index");
+        };
+    }
+
+    /**
+     * Rows strictly after (value, id) in the order (column, id) ascending with nulls first, or
+     * descending with nulls last.
+     */
+    private static Predicate afterKeyset(ComparableExpressionBase<?> column, Object value, Long id, boolean descending) {
+        if (value == null) {
+            BooleanExpression sameNullKey = column.isNull().and(descending ? product.id.lt(id) : product.id.gt(id));
+            return descending ? sameNullKey : sameNullKey.or(column.isNotNull());
+        }
+        Operator beyond = descending ? Ops.LT : Ops.GT;
+        BooleanExpression afterValue = Expressions.booleanOperation(beyond, column, Expressions.constant(value));
+        BooleanExpression sameValue = Expressions.booleanOperation(Ops.EQ, column, Expressions.constant(value))
+                .and(descending ? product.id.lt(id) : product.id.gt(id));
+        BooleanExpression after = afterValue.or(sameValue);
+        return descending ? after.or(column.isNull()) : after;
+    }
+
+    private BooleanBuilder buildCriteria(
+            String namePattern,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Integer minQuantity,
+            Integer maxQuantity) {
 
         BooleanBuilder whereClause = new BooleanBuilder();
 
@@ -53,15 +250,6 @@ public class ProductCustomRepositoryImpl implements ProductCustomRepository {
             whereClause.and(product.quantity.loe(maxQuantity));
         }
 
-        if (createdByUsername != null && !createdByUsername.trim().isEmpty()) {
-            whereClause.and(product.createdBy.username.eq(createdByUsername));
-        }
-
-        return queryFactory
-                .selectFrom(product)
-                .leftJoin(product.createdBy, user)
-                .where(whereClause)
-                .orderBy(product.name.asc())
-                .fetch();
+        return whereClause;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package com.example.crud.repository;
+
+import com.example.crud.exception.InvalidPaginationException;
+import com.example.crud.payload.response.ProductResponse;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filters, ordering and keyset position of a paged product search. Null filters are not applied.
+ * Rows are ordered by the sort key and then by id in the same direction; null sort values come first
+ * in ascending order and last in descending order.
+ */
+@Data
+public class ProductSearchCriteria {
+
+    public enum SortKey {
+        /** Best text match first; only available for text searches answered by the search index. */
+        RELEVANCE("relevance"),
+        NAME("name"),
+        PRICE("price"),
+        QUANTITY("quantity"),
+        UPDATED_WHEN("updatedWhen");
+
+        private final String parameter;
+
+        SortKey(String parameter) {
+            this.parameter = parameter;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        public static SortKey fromParameter(String value) {
+            for (SortKey key : values()) {
+                if (key.parameter.equalsIgnoreCase(value)) {
+                    return key;
+                }
+            }
+            throw new InvalidPaginationException(
+                    "Unsupported sort: " + value + " (use relevance, name, price, quantity or updatedWhen)");
+        }
+
+        public Object valueOf(ProductResponse product) {
+            return switch (this) {
+                case NAME -> product.getName();
+                case PRICE -> product.getPrice();
+                case QUANTITY -> product.getQuantity();
+                case UPDATED_WHEN -> product.getUpdatedWhen();
+                case RELEVANCE -> throw new IllegalStateException("Relevance is not a product column");
+            };
+        }
+
+        /**
+         * Inverse of {@code String.valueOf} for the values of this key; an empty string is null.
+         */
+        public Object parseValue(String value) {
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return switch (this) {
+                    case NAME -> value;
+                    case PRICE -> new BigDecimal(value);
+                    case QUANTITY, RELEVANCE -> Integer.valueOf(value);
+                    case UPDATED_WHEN -> LocalDateTime.parse(value);
+                };
+            } catch (RuntimeException e) {
+                throw new InvalidPaginationException("Invalid pagination cursor");
+            }
+        }
+    }
+
+    private String namePattern;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minQuantity;
+    private Integer maxQuantity;
+    private String createdByUsername;
+
+    private SortKey sort = SortKey.NAME;
+    private boolean descending;
+
+    /** Id of the last row of the previous page, null for the first page. */
+    private Long afterId;
+    /** Sort value of the last row of the previous page; may be null when {@link #afterId} is set. */
+    private Object afterValue;
+
+    public boolean hasRangeFilters() {
+        return minPrice != null || maxPrice != null || minQuantity != null || maxQuantity != null;
+    }
+}
@@ -1,20 +1,44 @@
 package com.example.crud.repository;
 
+import com.example.crud.model.ERole;
 import com.example.crud.model.User;
 import com.example.crud.model.UserStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    /**
+     * Only what authentication needs, one row per role: no encrypted columns are decrypted
+     * and no collections are initialized.
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.password AS password, u.status AS status, " +
+           "u.accountExpiresAt AS accountExpiresAt, r.name AS role " +
+           "FROM User u LEFT JOIN u.roles r WHERE u.username = :username")
+    List<AuthRow> findAuthRowsByUsername(@Param("username") String username);
+
     Optional<User> findByEmail(String email);
 
+    /**
+     * Matches the stored column as is, without going through {@code StringEncryptedConverter}, so rows
+     * not yet re-encrypted to the current key are found too.
+     */
+    @Query(value = "SELECT * FROM users WHERE email IN (:storedEmails) ORDER BY id", nativeQuery = true)
+    List<User> findByStoredEmailIn(@Param("storedEmails") Collection<String> storedEmails);
+
+    @Query("SELECT u.profileImageHash AS hash, u.profileImageType AS contentType FROM User u WHERE u.id = :id")
+    Optional<ProfileImageRef> findProfileImageById(@Param("id") Long id);
+
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
@@ -22,4 +46,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Modifying
     @Query("UPDATE User u SET u.status = com.example.crud.model.UserStatus.ACTIVE WHERE u.status IS NULL")
     int updateNullStatusesToActive();
+
+    interface AuthRow {
+        Long getId();
+
+        String getUsername();
+
+        String getPassword();
+
+        UserStatus getStatus();
+
+        LocalDateTime getAccountExpiresAt();
+
+        ERole getRole();
+    }
+
+    interface ProfileImageRef {
+        String getHash();
+
+        String getContentType();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.example.crud.security;
+
+import com.example.crud.exception.PasswordVerificationRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password verification on a small dedicated pool instead of on request threads.
+ *
+ * At most {@code threads} hashes are computed at once and at most {@code queueCapacity} more may
+ * wait; anything beyond that, or a verification not finished within {@code maxWaitMs}, fails fast with
+ * {@link PasswordVerificationRejectedException}. A login storm therefore costs a bounded number of
+ * CPU cores and request threads while every other endpoint keeps being served. Encoding stays on
+ * the calling thread, it only happens on sign-up and password changes.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMs) {
+        if (threads < 1 || queueCapacity < 1 || maxWaitMs < 1) {
+            throw new IllegalArgumentException("threads, queueCapacity and maxWaitMs must be positive");
+        }
+        this.delegate = delegate;
+        this.maxWaitMs = maxWaitMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long submittedAt = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(queueWaitNanos, maxQueueWaitNanos, startedAt - submittedAt);
+                try {
+                    return delegate.matches(rawPassword, encodedPassword);
+                } finally {
+                    record(hashNanos, maxHashNanos, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordVerificationRejectedException("Too many concurrent sign-in attempts, please retry shortly");
+        }
+
+        try {
+            boolean matches = result.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            verifications.increment();
+            return matches;
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            timedOut.increment();
+            throw new PasswordVerificationRejectedException("Password verification timed out, please retry shortly", e);
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordVerificationRejectedException("Password verification interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password verification failed", cause);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public Map<String, Object> getStats() {
+        long completed = verifications.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("maxWaitMs", maxWaitMs);
+        stats.put("verifications", completed);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("avgQueueWaitMs", completed == 0 ? 0.0 : nanosToMillis(queueWaitNanos.sum()) / completed);
+        stats.put("maxQueueWaitMs", nanosToMillis(maxQueueWaitNanos.get()));
+        stats.put("avgHashMs", completed == 0 ? 0.0 : nanosToMillis(hashNanos.sum()) / completed);
+        stats.put("maxHashMs", nanosToMillis(maxHashNanos.get()));
+        return stats;
+    }
+
+    private static void record(LongAdder total, LongAccumulator max, long nanos) {
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    private static double nanosToMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.crud.security;
 
-import com.example.crud.model.Product;
-import com.example.crud.repository.ProductRepository;
+import com.example.crud.payload.response.ProductResponse;
 import com.example.crud.security.services.UserDetailsImpl;
+import com.example.crud.service.ProductCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,17 +12,23 @@ import org.springframework.stereotype.Component;
 public class ProductSecurity {
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductCacheService productCacheService;
 
     public boolean isProductCreator(Long productId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        Product product = productRepository.findById(productId).orElse(null);
-        if (product == null || product.getCreatedBy() == null) {
+        // Served from the product cache; usernames are unique, so they identify the creator as well as ids
+        ProductResponse product;
+        try {
+            product = productCacheService.getProduct(productId);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (product.getCreatedBy() == null) {
             return false;
         }
 
-        return product.getCreatedBy().getId().equals(userDetails.getId());
+        return product.getCreatedBy().equals(userDetails.getUsername());
     }
-}
\ No newline at end of file
+}
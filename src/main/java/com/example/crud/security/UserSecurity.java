@@ -1,9 +1,7 @@
 package com.example.crud.security;
 
-import com.example.crud.model.User;
-import com.example.crud.model.UserStatus;
+import com.example.crud.security.services.UserDetailsImpl;
 import com.example.crud.service.UserPermissionService;
-import com.example.crud.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,9 +9,6 @@ import org.springframework.stereotype.Component;
 
 @Component("userSecurity")
 public class UserSecurity {
-    @Autowired
-    private UserService userService;
-    
     @Autowired
     private UserPermissionService permissionService;
 
@@ -27,13 +22,7 @@ public class UserSecurity {
             return false;
         }
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null) return false;
-
-        User user = userService.getUserById(userId);
-        if (user == null) return false;
-
-        return authentication.getName().equals(user.getUsername());
+        return isAuthenticatedAs(userId);
     }
 
     /**
@@ -46,12 +35,14 @@ public class UserSecurity {
             return false;
         }
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null) return false;
+        return isAuthenticatedAs(userId);
+    }
 
-        User user = userService.getUserById(userId);
-        if (user == null) return false;
+    // Compares against the id of the principal resolved for this request instead of loading the user
+    private boolean isAuthenticatedAs(Long userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl)) return false;
 
-        return authentication.getName().equals(user.getUsername());
+        return ((UserDetailsImpl) authentication.getPrincipal()).getId().equals(userId);
     }
-}
\ No newline at end of file
+}
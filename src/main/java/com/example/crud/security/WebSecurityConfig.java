@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -13,7 +14,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
@@ -39,6 +39,16 @@ public class WebSecurityConfig {
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
+    // 0 uses one verification thread per available processor
+    @Value("${app.auth.password-verification.threads:0}")
+    private int passwordVerificationThreads;
+
+    @Value("${app.auth.password-verification.queue-capacity:64}")
+    private int passwordVerificationQueueCapacity;
+
+    @Value("${app.auth.password-verification.max-wait-ms:3000}")
+    private long passwordVerificationMaxWaitMs;
+
     @Autowired
     UserDetailsServiceImpl userDetailsService;
 
@@ -69,8 +79,10 @@ public class WebSecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(),
+                passwordVerificationThreads > 0 ? passwordVerificationThreads : Runtime.getRuntime().availableProcessors(),
+                passwordVerificationQueueCapacity, passwordVerificationMaxWaitMs);
     }
 
     // Global CORS configuration remains the same
@@ -117,6 +129,8 @@ public class WebSecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                     .requestMatchers("/auth/**", "/auth/google/**", "/h2-console/**").permitAll()
+                    // Loaded by <img> tags, which cannot send the bearer token
+                    .requestMatchers(HttpMethod.GET, "/users/*/profile-image").permitAll()
                     // Note: No need for /ws/** permitAll here, handled by the other chain
                     .requestMatchers("/api/logs/**").authenticated()
                     .anyRequest().authenticated()
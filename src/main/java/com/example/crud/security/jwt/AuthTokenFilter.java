@@ -1,6 +1,7 @@
 package com.example.crud.security.jwt;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -45,8 +46,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         
         try {
             String jwt = jwtUtils.parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Optional<VerifiedJwt> verified = jwt != null ? jwtUtils.verifyJwtToken(jwt) : Optional.empty();
+            if (verified.isPresent()) {
+                String username = verified.get().getSubject();
 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication =
@@ -2,9 +2,12 @@ package com.example.crud.security.jwt;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -13,7 +16,10 @@ import lombok.extern.slf4j.Slf4j;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
+import com.example.crud.config.CacheConfig;
+import com.example.crud.security.services.AuthenticationCache;
 import com.example.crud.security.services.UserDetailsImpl;
 import com.example.crud.service.TokenBlacklistService;
 import com.example.crud.service.UserSessionService;
@@ -31,6 +37,12 @@ public class JwtUtils {
     @Autowired
     private UserSessionService userSessionService;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -43,6 +55,15 @@ public class JwtUtils {
     @Value("${app.jwt.prefix}")
     private String tokenPrefix;
 
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
         Date now = new Date();
@@ -72,59 +93,95 @@ public class JwtUtils {
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parse(token).getSubject();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getExpiration();
-        } catch (Exception e) {
-            return null;
-        }
+        return verify(token).map(VerifiedJwt::getExpiration).orElse(null);
     }
 
     public boolean validateJwtToken(String authToken) {
-        try {
-            // First check if token is blacklisted
-            if (tokenBlacklistService.isTokenBlacklisted(authToken)) {
-                return false;
-            }
-
-            // First validate token signature and expiration
-            try {
-                Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            } catch (ExpiredJwtException e) {
-                log.debug("JWT token is expired: {}", e.getMessage());
-                return false;
-            } catch (SecurityException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
-                log.debug("Invalid JWT token: {}", e.getMessage());
-                return false;
-            }
+        return verifyJwtToken(authToken).isPresent();
+    }
 
-            // Check if it's a password reset token
-            boolean isPasswordResetToken = isPasswordResetToken(authToken);
+    /**
+     * Verifies the token's signature and expiry, then checks it is neither blacklisted nor detached from
+     * its session (password reset tokens have no session). The token is parsed at most once.
+     *
+     * @return the verified claims, or empty if the token must not be accepted
+     */
+    public Optional<VerifiedJwt> verifyJwtToken(String authToken) {
+        Optional<VerifiedJwt> verified = verify(authToken);
+        if (verified.isEmpty()) {
+            return Optional.empty();
+        }
 
-            // Then check if it's a valid session token (skip for password reset tokens)
-            if (!isPasswordResetToken && !userSessionService.isValidSession(authToken)) {
-                log.debug("JWT token is not a valid session");
-                return false;
+        try {
+            // Blacklist and session lookups are cached per token until it is blacklisted or its session ends
+            boolean isPasswordResetToken = verified.get().isPasswordReset();
+            if (!authenticationCache.isTokenActive(authToken, token -> isActiveToken(token, isPasswordResetToken))) {
+                log.debug("JWT token is blacklisted or not a valid session");
+                return Optional.empty();
             }
-
-            return true;
+            return verified;
         } catch (Exception e) {
             log.debug("JWT validation error: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private boolean isActiveToken(String authToken, boolean isPasswordResetToken) {
+        if (tokenBlacklistService.isTokenBlacklisted(authToken)) {
             return false;
         }
+
+        // Password reset tokens are not tied to a session
+        return isPasswordResetToken || userSessionService.isValidSession(authToken);
+    }
+
+    /**
+     * Signature and expiry check only, without the blacklist and session lookups of {@link #verifyJwtToken(String)}.
+     */
+    public Optional<VerifiedJwt> getVerifiedClaims(String authToken) {
+        return verify(authToken);
+    }
+
+    private Optional<VerifiedJwt> verify(String authToken) {
+        try {
+            return Optional.of(parse(authToken));
+        } catch (ExpiredJwtException e) {
+            log.debug("JWT token is expired: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Invalid JWT token: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Parses and verifies the token once; recently verified tokens are served from the
+     * {@code verifiedJwts} cache without repeating the HMAC check, but are still expiry-checked.
+     */
+    private VerifiedJwt parse(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT string is empty");
+        }
+        Cache<Object, Object> verifiedTokens = CacheConfig.nativeCache(cacheManager, CacheConfig.VERIFIED_JWTS_CACHE);
+        VerifiedJwt cached = (VerifiedJwt) verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            if (cached.isExpired(System.currentTimeMillis())) {
+                verifiedTokens.invalidate(token);
+                throw new ExpiredJwtException(null, null, "JWT expired at " + cached.getExpiration());
+            }
+            return cached;
+        }
+
+        VerifiedJwt verified = VerifiedJwt.from(parser.parseClaimsJws(token).getBody());
+        verifiedTokens.put(token, verified);
+        return verified;
     }
 
     public String parseJwt(HttpServletRequest request) {
@@ -160,30 +217,16 @@ public class JwtUtils {
 
     public boolean isPasswordResetToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return "password_reset".equals(claims.get("type"));
+            return parse(token).isPasswordReset();
         } catch (ExpiredJwtException e) {
             // Even if expired, we can check the type
-            return "password_reset".equals(e.getClaims().get("type"));
+            return e.getClaims() != null && "password_reset".equals(e.getClaims().get("type"));
         } catch (Exception e) {
             return false;
         }
     }
 
     public Long getUserIdFromToken(String token) {
-        try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.get("userId", Long.class);
-        } catch (Exception e) {
-            return null;
-        }
+        return verify(token).map(VerifiedJwt::getUserId).orElse(null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.example.crud.security.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Immutable view of the claims of a JWT whose signature has been verified.
+ * Produced once per token by {@link JwtUtils#verifyJwtToken(String)} and safe to share between requests.
+ */
+public final class VerifiedJwt {
+
+    private static final String PASSWORD_RESET_TYPE = "password_reset";
+
+    private final String subject;
+    private final Long userId;
+    private final String type;
+    private final long issuedAt;
+    private final long expiration;
+
+    private VerifiedJwt(String subject, Long userId, String type, Date issuedAt, Date expiration) {
+        this.subject = subject;
+        this.userId = userId;
+        this.type = type;
+        this.issuedAt = issuedAt != null ? issuedAt.getTime() : 0L;
+        this.expiration = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+    }
+
+    static VerifiedJwt from(Claims claims) {
+        return new VerifiedJwt(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("type", String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration());
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Date getIssuedAt() {
+        return new Date(issuedAt);
+    }
+
+    public Date getExpiration() {
+        return new Date(expiration);
+    }
+
+    public boolean isPasswordReset() {
+        return PASSWORD_RESET_TYPE.equals(type);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration <= nowMillis;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.crud.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free rate limiter using the generic cell rate algorithm (GCRA).
+ *
+ * Each key keeps a single {@link AtomicLong} holding its theoretical arrival time (TAT). Allowing
+ * {@code limit} requests per {@code window} means every request pushes the TAT forward by
+ * {@code window / limit}, and a request is rejected when that would put the TAT more than one window
+ * ahead of now. This behaves like a sliding window of {@code limit} requests, including bursts of up
+ * to {@code limit}, without storing per-request or per-second history.
+ *
+ * A key untouched for a full window is indistinguishable from a new one, so keys are evicted after
+ * {@code idleNanos} without access, and the total number of keys is capped.
+ */
+public class GcraRateLimiter {
+
+    private final Cache<String, AtomicLong> arrivalTimes;
+
+    /**
+     * @param maximumKeys upper bound on tracked keys, least valuable keys are evicted beyond it
+     * @param idleNanos evaluated per access; must be at least the longest window in use
+     */
+    public GcraRateLimiter(long maximumKeys, LongSupplier idleNanos) {
+        this.arrivalTimes = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfter(new Expiry<String, AtomicLong>() {
+                    @Override
+                    public long expireAfterCreate(String key, AtomicLong value, long currentTime) {
+                        return idleNanos.getAsLong();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, AtomicLong value, long currentTime, long currentDuration) {
+                        return idleNanos.getAsLong();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, AtomicLong value, long currentTime, long currentDuration) {
+                        return idleNanos.getAsLong();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return true if the request fits into {@code limit} requests per {@code windowNanos} for this key
+     */
+    public boolean tryAcquire(String key, int limit, long windowNanos) {
+        if (limit <= 0) {
+            return false;
+        }
+        long emissionInterval = Math.max(1, windowNanos / limit);
+        AtomicLong arrivalTime = arrivalTimes.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + emissionInterval;
+            if (next - now > windowNanos) {
+                return false;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public long getTrackedKeys() {
+        return arrivalTimes.estimatedSize();
+    }
+}
@@ -2,12 +2,13 @@ package com.example.crud.security.ratelimit;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -19,30 +20,27 @@ public class RateLimitController {
     @Autowired
     private RateLimitService rateLimitService;
     
-    @Value("${rate.limit.max-requests}")
-    private int maxRequests;
-    
-    @Value("${rate.limit.window-seconds}")
-    private int windowSeconds;
-    
-    @Value("${rate.limit.public-endpoints.max-requests}")
-    private int publicEndpointMaxRequests;
-    
     /**
-     * Get current rate limit configurations
+     * Get current rate limit configurations, read from the active default per-IP and public
+     * products policies (null if the policy set has none). See /policies for the full set.
      */
     @GetMapping("/config")
     public ResponseEntity<Map<String, Object>> getRateLimitConfig() {
+        RateLimitPolicy defaultPolicy = rateLimitService.getPolicy(RateLimitService.DEFAULT_IP_POLICY).orElse(null);
+        RateLimitPolicy publicPolicy = rateLimitService.getPolicy(RateLimitService.PUBLIC_PRODUCTS_POLICY).orElse(null);
+        
         Map<String, Object> config = new HashMap<>();
-        config.put("maxRequestsPerWindow", maxRequests);
-        config.put("publicEndpointMaxRequests", publicEndpointMaxRequests);
-        config.put("windowSeconds", windowSeconds);
+        config.put("maxRequestsPerWindow", defaultPolicy != null ? defaultPolicy.getMaxRequests() : null);
+        config.put("publicEndpointMaxRequests", publicPolicy != null ? publicPolicy.getMaxRequests() : null);
+        config.put("windowSeconds", defaultPolicy != null ? defaultPolicy.getWindowSeconds() : null);
+        config.put("trackedClients", rateLimitService.getTrackedClients());
+        config.put("rejections", rateLimitService.getRejections());
         
         return ResponseEntity.ok(config);
     }
     
     /**
-     * Update rate limit configuration
+     * Update rate limit configuration of the default per-IP policy
      */
     @PutMapping("/config")
     public ResponseEntity<Map<String, Object>> updateRateLimitConfig(
@@ -52,20 +50,76 @@ public class RateLimitController {
         Map<String, Object> result = new HashMap<>();
         
         // Update only if parameters are provided
-        if (maxRequests != null && windowSeconds != null) {
-            rateLimitService.updateRateLimits(maxRequests, windowSeconds);
-            this.maxRequests = maxRequests;
-            this.windowSeconds = windowSeconds;
-            
-            result.put("status", "success");
-            result.put("message", "Rate limits updated successfully");
-            result.put("maxRequestsPerWindow", maxRequests);
-            result.put("windowSeconds", windowSeconds);
-        } else {
+        if (maxRequests == null || windowSeconds == null) {
             result.put("status", "error");
             result.put("message", "Both maxRequests and windowSeconds must be provided");
+            return ResponseEntity.ok(result);
+        }
+        
+        boolean updated;
+        try {
+            updated = rateLimitService.updateRateLimits(maxRequests, windowSeconds);
+        } catch (IllegalArgumentException e) {
+            result.put("status", "error");
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+        if (!updated) {
+            result.put("status", "error");
+            result.put("message", "The active policies have no '" + RateLimitService.DEFAULT_IP_POLICY +
+                    "' policy; update them through /policies");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+        
+        result.put("status", "success");
+        result.put("message", "Rate limits updated successfully");
+        result.put("maxRequestsPerWindow", maxRequests);
+        result.put("windowSeconds", windowSeconds);
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Get the active rate limit policies with their reject counters
+     */
+    @GetMapping("/policies")
+    public ResponseEntity<Map<String, Object>> getPolicies() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("policies", rateLimitService.getPolicies());
+        result.put("rejections", rateLimitService.getRejections());
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Replace all rate limit policies at once
+     */
+    @PutMapping("/policies")
+    public ResponseEntity<Map<String, Object>> replacePolicies(@RequestBody List<RateLimitPolicy> policies) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            rateLimitService.replacePolicies(policies);
+        } catch (IllegalArgumentException e) {
+            result.put("status", "error");
+            result.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
         }
         
+        result.put("status", "success");
+        result.put("message", "Rate limit policies replaced");
+        result.put("policies", rateLimitService.getPolicies());
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * Restore the policies defined by the rate.limit.* properties
+     */
+    @PostMapping("/policies/reset")
+    public ResponseEntity<Map<String, Object>> resetPolicies() {
+        rateLimitService.replacePolicies(rateLimitService.defaultPolicies());
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "success");
+        result.put("message", "Rate limit policies reset to defaults");
+        result.put("policies", rateLimitService.getPolicies());
         return ResponseEntity.ok(result);
     }
     
@@ -0,0 +1,39 @@
+package com.example.crud.security.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A limit of {@code maxRequests} per {@code windowSeconds} for requests whose path (without the
+ * context path) matches {@code pathPattern}, counted per {@link RateLimitScope}.
+ *
+ * Patterns are literal segments, {@code *} for exactly one segment and a trailing {@code **} for any
+ * remainder, e.g. {@code /products/*} or {@code /auth/**}. Within a scope only the most specific
+ * matching policy applies; policies of different scopes all apply.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitPolicy {
+    private String name;
+    private RateLimitScope scope;
+    private String pathPattern;
+    private int maxRequests;
+    private int windowSeconds;
+
+    void validate() {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Rate limit policy name is required");
+        }
+        if (scope == null) {
+            throw new IllegalArgumentException("Rate limit policy '" + name + "' has no scope");
+        }
+        if (pathPattern == null || !pathPattern.startsWith("/")) {
+            throw new IllegalArgumentException("Rate limit policy '" + name + "' needs a path pattern starting with '/'");
+        }
+        if (maxRequests < 1 || windowSeconds < 1) {
+            throw new IllegalArgumentException("Rate limit policy '" + name + "' needs positive maxRequests and windowSeconds");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.crud.security.ratelimit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path-segment trie over the policies of one scope, built once per policy set so a request
+ * is matched by walking its path segments instead of testing every pattern.
+ *
+ * At each segment a literal child is preferred over {@code *}, which is preferred over a
+ * trailing {@code **}, so the most specific pattern wins.
+ */
+class RateLimitPolicyTrie {
+
+    private static final String SINGLE_WILDCARD = "*";
+    private static final String MULTI_WILDCARD = "**";
+
+    private final Node root = new Node();
+
+    RateLimitPolicyTrie(List<RateLimitPolicy> policies) {
+        for (RateLimitPolicy policy : policies) {
+            insert(policy);
+        }
+    }
+
+    RateLimitPolicy match(String path) {
+        return match(root, segments(path), 0);
+    }
+
+    private void insert(RateLimitPolicy policy) {
+        String[] segments = segments(policy.getPathPattern());
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (MULTI_WILDCARD.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' is only allowed at the end of pattern " + policy.getPathPattern());
+                }
+                node.remainder = claim(node.remainder, policy);
+                return;
+            }
+            node = SINGLE_WILDCARD.equals(segment)
+                    ? (node.wildcard != null ? node.wildcard : (node.wildcard = new Node()))
+                    : node.literals.computeIfAbsent(segment, s -> new Node());
+        }
+        node.exact = claim(node.exact, policy);
+    }
+
+    private RateLimitPolicy claim(RateLimitPolicy existing, RateLimitPolicy policy) {
+        if (existing != null) {
+            throw new IllegalArgumentException("Policies '" + existing.getName() + "' and '" + policy.getName()
+                    + "' have the same scope and path pattern");
+        }
+        return policy;
+    }
+
+    private RateLimitPolicy match(Node node, String[] segments, int index) {
+        if (index == segments.length) {
+            return node.exact != null ? node.exact : node.remainder;
+        }
+        Node literal = node.literals.get(segments[index]);
+        if (literal != null) {
+            RateLimitPolicy match = match(literal, segments, index + 1);
+            if (match != null) {
+                return match;
+            }
+        }
+        if (node.wildcard != null) {
+            RateLimitPolicy match = match(node.wildcard, segments, index + 1);
+            if (match != null) {
+                return match;
+            }
+        }
+        return node.remainder;
+    }
+
+    // Empty segments (leading, trailing or doubled slashes) are ignored
+    private static String[] segments(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node wildcard;
+        private RateLimitPolicy exact;
+        private RateLimitPolicy remainder;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.crud.security.ratelimit;
+
+/**
+ * What a rate limit policy counts requests against.
+ */
+public enum RateLimitScope {
+    // One allowance shared by all clients of the matching routes
+    GLOBAL,
+    // One allowance per authenticated username; anonymous requests are not counted
+    USER,
+    // One allowance per client IP
+    IP
+}
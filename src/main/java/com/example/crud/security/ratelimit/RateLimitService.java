@@ -1,23 +1,42 @@
 package com.example.crud.security.ratelimit;
 
+import com.example.crud.security.jwt.JwtUtils;
+import com.example.crud.security.jwt.VerifiedJwt;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 @Service
 public class RateLimitService {
     private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
 
+    static final String DEFAULT_IP_POLICY = "ip-default";
+    static final String PUBLIC_PRODUCTS_POLICY = "ip-public-products";
+
+    // Scopes are checked from the narrowest to the widest allowance
+    private static final RateLimitScope[] EVALUATION_ORDER = { RateLimitScope.USER, RateLimitScope.IP, RateLimitScope.GLOBAL };
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
     // Maximum number of requests allowed in the window period
     @Value("${rate.limit.max-requests:100}")
     private int maxRequests;
@@ -34,11 +53,35 @@ public class RateLimitService {
     @Value("${rate.limit.public-endpoints.max-requests:300}")
     private int publicEndpointMaxRequests;
     
-    // Tracks request timestamps by IP
-    private final Map<String, SlidingWindow> requestLog = new ConcurrentHashMap<>();
+    // Per authenticated user, across all clients the user connects from
+    @Value("${rate.limit.user.max-requests:300}")
+    private int userMaxRequests;
+    
+    // Overall cap for the whole API, across all users and IPs
+    @Value("${rate.limit.global.max-requests:10000}")
+    private int globalMaxRequests;
+    
+    // Upper bound on tracked clients; idle clients are dropped once their window has passed
+    @Value("${rate.limit.max-tracked-clients:100000}")
+    private long maxTrackedClients;
+    
+    // One GCRA arrival time per policy and client
+    private GcraRateLimiter limiter;
+    
+    // Swapped as a whole so a request always sees one consistent policy set
+    private volatile CompiledPolicies policies;
+    
+    private final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
     
     // Set of whitelisted IP addresses
-    private Set<String> whitelistedIps = new HashSet<>();
+    private final Set<String> whitelistedIps = ConcurrentHashMap.newKeySet();
+    
+    @PostConstruct
+    public void init() {
+        policies = new CompiledPolicies(defaultPolicies());
+        limiter = new GcraRateLimiter(maxTrackedClients, () -> policies.maxWindowNanos);
+        initializeWhitelist();
+    }
     
     // Initialize whitelist after properties are set
     public void initializeWhitelist() {
@@ -48,62 +91,122 @@ public class RateLimitService {
         }
     }
 
+    /**
+     * Policies equivalent to the rate.limit.* properties: a per-IP default, the higher per-IP limit for
+     * public endpoints (signup excluded), a per-user cap and a global cap.
+     */
+    public List<RateLimitPolicy> defaultPolicies() {
+        return List.of(
+                new RateLimitPolicy(DEFAULT_IP_POLICY, RateLimitScope.IP, "/**", maxRequests, windowSeconds),
+                new RateLimitPolicy(PUBLIC_PRODUCTS_POLICY, RateLimitScope.IP, "/products/**", publicEndpointMaxRequests, windowSeconds),
+                new RateLimitPolicy("ip-public-categories", RateLimitScope.IP, "/categories/**", publicEndpointMaxRequests, windowSeconds),
+                new RateLimitPolicy("ip-public-auth", RateLimitScope.IP, "/auth/**", publicEndpointMaxRequests, windowSeconds),
+                new RateLimitPolicy("ip-signup", RateLimitScope.IP, "/auth/signup", maxRequests, windowSeconds),
+                new RateLimitPolicy("user-default", RateLimitScope.USER, "/**", userMaxRequests, windowSeconds),
+                new RateLimitPolicy("global", RateLimitScope.GLOBAL, "/**", globalMaxRequests, windowSeconds));
+    }
+
     /**
      * Checks if the request from the given IP is allowed based on rate limits
      * @param clientIp The client's IP address
      * @return true if request is allowed, false if rate limit exceeded
      */
     public boolean isAllowed(String clientIp) {
-        // Initialize whitelist if not already done
-        if (whitelistedIps.isEmpty()) {
-            initializeWhitelist();
-        }
-        
         // Check if IP is whitelisted
         if (whitelistedIps.contains(clientIp)) {
             return true;
         }
         
-        SlidingWindow window = requestLog.computeIfAbsent(clientIp, k -> new SlidingWindow());
-        return window.tryAcquire(maxRequests);
+        return isAllowed(policies, "/", clientIp, null);
     }
     
     /**
-     * Checks if the request from the given IP is allowed based on endpoint type
+     * Checks the request against the most specific policy of every scope; all of them must allow it
      * @param clientIp The client's IP address
-     * @param request The HTTP request to determine endpoint type
+     * @param request The HTTP request, used for its path and bearer token
      * @return true if request is allowed, false if rate limit exceeded
      */
     public boolean isAllowed(String clientIp, HttpServletRequest request) {
-        // Initialize whitelist if not already done
-        if (whitelistedIps.isEmpty()) {
-            initializeWhitelist();
-        }
-        
         // Check if IP is whitelisted
         if (whitelistedIps.contains(clientIp)) {
             return true;
         }
         
-        SlidingWindow window = requestLog.computeIfAbsent(clientIp, k -> new SlidingWindow());
-        
-        // Determine which rate limit to apply based on the endpoint
-        String path = request.getRequestURI();
-        if (isPublicEndpoint(path)) {
-            return window.tryAcquire(publicEndpointMaxRequests);
-        } else {
-            return window.tryAcquire(maxRequests);
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return isAllowed(policies, path, clientIp, resolveUsername(request));
+    }
+    
+    private boolean isAllowed(CompiledPolicies current, String path, String clientIp, String username) {
+        for (RateLimitScope scope : EVALUATION_ORDER) {
+            RateLimitPolicy policy = current.tries.get(scope).match(path);
+            if (policy == null) {
+                continue;
+            }
+            String key;
+            switch (scope) {
+                case USER:
+                    if (username == null) {
+                        continue;
+                    }
+                    key = policy.getName() + ":user:" + username;
+                    break;
+                case IP:
+                    key = policy.getName() + ":ip:" + clientIp;
+                    break;
+                default:
+                    key = policy.getName();
+            }
+            if (!limiter.tryAcquire(key, policy.getMaxRequests(), TimeUnit.SECONDS.toNanos(policy.getWindowSeconds()))) {
+                rejections.computeIfAbsent(policy.getName(), name -> new LongAdder()).increment();
+                return false;
+            }
         }
+        return true;
+    }
+    
+    // The filter runs before authentication; a signature-checked token is enough to pick the user's allowance
+    private String resolveUsername(HttpServletRequest request) {
+        String jwt = jwtUtils.parseJwt(request);
+        return jwt == null ? null : jwtUtils.getVerifiedClaims(jwt).map(VerifiedJwt::getSubject).orElse(null);
     }
     
     /**
-     * Determine if an endpoint should use the higher "public" rate limit
+     * Replaces all policies at once; requests in flight finish with the previous set
+     * @throws IllegalArgumentException if a policy is invalid or two policies collide
      */
-    private boolean isPublicEndpoint(String path) {
-        // Endpoints that should have higher limits (public data, less sensitive)
-        return path.contains("/products") || 
-               path.contains("/categories") ||
-               (path.contains("/auth") && !path.contains("/signup"));
+    public void replacePolicies(List<RateLimitPolicy> newPolicies) {
+        CompiledPolicies compiled = new CompiledPolicies(newPolicies);
+        policies = compiled;
+        logger.info("Rate limit policies replaced: {}", compiled.policies.stream()
+                .map(RateLimitPolicy::getName).collect(Collectors.joining(", ")));
+    }
+    
+    public List<RateLimitPolicy> getPolicies() {
+        return policies.policies.stream()
+                .map(policy -> new RateLimitPolicy(policy.getName(), policy.getScope(), policy.getPathPattern(),
+                        policy.getMaxRequests(), policy.getWindowSeconds()))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * @return a copy of the active policy with this name, if there is one
+     */
+    public Optional<RateLimitPolicy> getPolicy(String name) {
+        return getPolicies().stream()
+                .filter(policy -> policy.getName().equals(name))
+                .findFirst();
+    }
+    
+    /**
+     * Rejected requests per policy name since startup
+     */
+    public Map<String, Long> getRejections() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (RateLimitPolicy policy : policies.policies) {
+            LongAdder rejected = rejections.get(policy.getName());
+            counts.put(policy.getName(), rejected != null ? rejected.sum() : 0L);
+        }
+        return counts;
     }
     
     /**
@@ -135,49 +238,64 @@ public class RateLimitService {
     }
     
     /**
-     * Update rate limits at runtime
+     * Number of policy/client combinations currently tracked
      */
-    public void updateRateLimits(int newMaxRequests, int newWindowSeconds) {
+    public long getTrackedClients() {
+        return limiter.getTrackedKeys();
+    }
+    
+    /**
+     * Update rate limits at runtime; applies to the default per-IP policy
+     * @return false if the active policy set has no default per-IP policy, nothing is changed then
+     * @throws IllegalArgumentException if the limits are not positive
+     */
+    public synchronized boolean updateRateLimits(int newMaxRequests, int newWindowSeconds) {
+        boolean found = false;
+        List<RateLimitPolicy> updated = new ArrayList<>();
+        for (RateLimitPolicy policy : policies.policies) {
+            if (DEFAULT_IP_POLICY.equals(policy.getName())) {
+                found = true;
+                updated.add(new RateLimitPolicy(policy.getName(), policy.getScope(), policy.getPathPattern(), newMaxRequests, newWindowSeconds));
+            } else {
+                updated.add(policy);
+            }
+        }
+        if (!found) {
+            return false;
+        }
+        replacePolicies(updated);
         this.maxRequests = newMaxRequests;
         this.windowSeconds = newWindowSeconds;
         logger.info("Updated rate limits: {} requests per {} seconds", 
                 newMaxRequests, newWindowSeconds);
+        return true;
     }
 
-    /**
-     * Inner class that implements a sliding window for rate limiting
-     */
-    private class SlidingWindow {
-        private final ConcurrentHashMap<Long, Integer> requestCounts = new ConcurrentHashMap<>();
-        
-        /**
-         * Tries to acquire a permit to proceed with specified limit
-         * @return true if request is allowed, false otherwise
-         */
-        public synchronized boolean tryAcquire(int limit) {
-            cleanup();
-            
-            long currentSecond = Instant.now().getEpochSecond();
-            int currentCount = requestCounts.getOrDefault(currentSecond, 0);
-            
-            // Get total count in the sliding window
-            int totalCount = requestCounts.values().stream().mapToInt(Integer::intValue).sum();
-            
-            if (totalCount >= limit) {
-                return false;
+    private static final class CompiledPolicies {
+        private final List<RateLimitPolicy> policies;
+        private final Map<RateLimitScope, RateLimitPolicyTrie> tries = new EnumMap<>(RateLimitScope.class);
+        private final long maxWindowNanos;
+
+        private CompiledPolicies(List<RateLimitPolicy> source) {
+            // Copied so later changes to the caller's objects cannot alter the active set
+            List<RateLimitPolicy> copies = new ArrayList<>();
+            Set<String> names = new HashSet<>();
+            for (RateLimitPolicy policy : source) {
+                policy.validate();
+                if (!names.add(policy.getName())) {
+                    throw new IllegalArgumentException("Duplicate rate limit policy name '" + policy.getName() + "'");
+                }
+                copies.add(new RateLimitPolicy(policy.getName(), policy.getScope(), policy.getPathPattern(),
+                        policy.getMaxRequests(), policy.getWindowSeconds()));
             }
-            
-            // Increment the counter for the current second
-            requestCounts.put(currentSecond, currentCount + 1);
-            return true;
-        }
-        
-        /**
-         * Removes entries older than the window duration
-         */
-        private void cleanup() {
-            long cutoffTime = Instant.now().minus(Duration.ofSeconds(windowSeconds)).getEpochSecond();
-            requestCounts.keySet().removeIf(timestamp -> timestamp <= cutoffTime);
+            this.policies = List.copyOf(copies);
+            for (RateLimitScope scope : RateLimitScope.values()) {
+                tries.put(scope, new RateLimitPolicyTrie(copies.stream()
+                        .filter(policy -> policy.getScope() == scope)
+                        .collect(Collectors.toList())));
+            }
+            this.maxWindowNanos = TimeUnit.SECONDS.toNanos(copies.stream()
+                    .mapToInt(RateLimitPolicy::getWindowSeconds).max().orElse(1));
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.example.crud.security.services;
+
+import com.example.crud.config.CacheConfig;
+import com.example.crud.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Short-lived cache of what the filter chain needs to authenticate a request: the principal
+ * (roles, status, password hash) per username and the blacklist/session verdict per token.
+ *
+ * Entries expire after the TTL configured for the {@code principals} and {@code authTokens} caches,
+ * and every write that changes one of them invalidates it explicitly, both immediately and again
+ * after the transaction commits so a concurrent request cannot re-cache the old state.
+ */
+@Component
+public class AuthenticationCache {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * @return the cached principal, or the loader's result; a loader returning null is not cached
+     */
+    public UserDetailsImpl getPrincipal(String username, Function<String, UserDetailsImpl> loader) {
+        return (UserDetailsImpl) CacheConfig.nativeCache(cacheManager, CacheConfig.PRINCIPALS_CACHE)
+                .get(username, key -> loader.apply((String) key));
+    }
+
+    public boolean isTokenActive(String token, Predicate<String> check) {
+        return (Boolean) CacheConfig.nativeCache(cacheManager, CacheConfig.AUTH_TOKENS_CACHE)
+                .get(token, key -> check.test((String) key));
+    }
+
+    public void invalidateUser(String username) {
+        if (username == null) {
+            return;
+        }
+        CacheConfig.nativeCache(cacheManager, CacheConfig.PRINCIPALS_CACHE).invalidate(username);
+        TransactionCallbacks.afterCommit(() ->
+                CacheConfig.nativeCache(cacheManager, CacheConfig.PRINCIPALS_CACHE).invalidate(username));
+    }
+
+    public void invalidateToken(String token) {
+        if (token == null) {
+            return;
+        }
+        CacheConfig.nativeCache(cacheManager, CacheConfig.AUTH_TOKENS_CACHE).invalidate(token);
+        TransactionCallbacks.afterCommit(() ->
+                CacheConfig.nativeCache(cacheManager, CacheConfig.AUTH_TOKENS_CACHE).invalidate(token));
+    }
+}
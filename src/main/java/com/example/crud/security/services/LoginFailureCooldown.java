@@ -0,0 +1,58 @@
+package com.example.crud.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory negative cache of usernames with repeated failed sign-ins. Once a username reaches
+ * {@code app.auth.failure-cooldown.threshold} failures, further attempts are refused without
+ * computing a password hash until no failure has been recorded for the cooldown period.
+ */
+@Component
+public class LoginFailureCooldown {
+
+    @Value("${app.auth.failure-cooldown.threshold:3}")
+    private int threshold;
+
+    @Value("${app.auth.failure-cooldown.seconds:30}")
+    private long cooldownSeconds;
+
+    @Value("${app.auth.failure-cooldown.max-usernames:100000}")
+    private long maxUsernames;
+
+    private Cache<String, AtomicInteger> failures;
+
+    @PostConstruct
+    public void init() {
+        failures = Caffeine.newBuilder()
+                .maximumSize(maxUsernames)
+                .expireAfterWrite(Duration.ofSeconds(cooldownSeconds))
+                .build();
+    }
+
+    public boolean isCoolingDown(String username) {
+        AtomicInteger count = failures.getIfPresent(username);
+        return count != null && count.get() >= threshold;
+    }
+
+    public void recordFailure(String username) {
+        // Re-putting the counter restarts the cooldown at the latest failure
+        AtomicInteger count = failures.get(username, key -> new AtomicInteger());
+        count.incrementAndGet();
+        failures.put(username, count);
+    }
+
+    public void reset(String username) {
+        failures.invalidate(username);
+    }
+
+    public long getCooldownSeconds() {
+        return cooldownSeconds;
+    }
+}
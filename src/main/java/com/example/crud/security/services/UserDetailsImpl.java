@@ -11,6 +11,8 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.example.crud.model.User;
+import com.example.crud.model.UserStatus;
+import com.example.crud.repository.UserRepository;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class UserDetailsImpl implements UserDetails {
@@ -30,10 +32,19 @@ public class UserDetailsImpl implements UserDetails {
 
     private LocalDateTime accountExpiresAt;
 
+    private UserStatus status;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
                           Collection<? extends GrantedAuthority> authorities,
                           boolean enabled, boolean accountNonLocked,
                           LocalDateTime accountExpiresAt) {
+        this(id, username, email, password, authorities, enabled, accountNonLocked, accountExpiresAt, null);
+    }
+
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                          Collection<? extends GrantedAuthority> authorities,
+                          boolean enabled, boolean accountNonLocked,
+                          LocalDateTime accountExpiresAt, UserStatus status) {
         this.id = id;
         this.username = username;
         this.email = email;
@@ -42,6 +53,7 @@ public class UserDetailsImpl implements UserDetails {
         this.enabled = enabled;
         this.accountNonLocked = accountNonLocked;
         this.accountExpiresAt = accountExpiresAt;
+        this.status = status;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -63,7 +75,34 @@ public class UserDetailsImpl implements UserDetails {
                 authorities,
                 isEnabled,
                 isAccountNonLocked,
-                user.getAccountExpiresAt()
+                user.getAccountExpiresAt(),
+                user.getStatus()
+        );
+    }
+
+    /**
+     * Builds the principal from the rows of {@link UserRepository#findAuthRowsByUsername(String)}.
+     * The email is not part of the projection and stays null.
+     */
+    public static UserDetailsImpl build(List<UserRepository.AuthRow> rows) {
+        UserRepository.AuthRow user = rows.get(0);
+        List<GrantedAuthority> authorities = rows.stream()
+                .filter(row -> row.getRole() != null)
+                .map(row -> new SimpleGrantedAuthority(row.getRole().name()))
+                .collect(Collectors.toList());
+
+        boolean isEnabled = user.getStatus() != UserStatus.BLOCKED;
+
+        return new UserDetailsImpl(
+                user.getId(),
+                user.getUsername(),
+                null,
+                user.getPassword(),
+                authorities,
+                isEnabled,
+                isEnabled,
+                user.getAccountExpiresAt(),
+                user.getStatus()
         );
     }
 
@@ -80,6 +119,10 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public UserStatus getStatus() {
+        return status;
+    }
+
     @Override
     public String getPassword() {
         return password;
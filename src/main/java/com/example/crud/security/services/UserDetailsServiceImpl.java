@@ -1,13 +1,13 @@
 package com.example.crud.security.services;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.example.crud.model.User;
 import com.example.crud.repository.UserRepository;
 
 @Service
@@ -15,12 +15,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    AuthenticationCache authenticationCache;
+
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        UserDetailsImpl principal = authenticationCache.getPrincipal(username, this::loadPrincipal);
+        if (principal == null) {
+            throw new UsernameNotFoundException("User Not Found with username: " + username);
+        }
+        return principal;
+    }
 
-        return UserDetailsImpl.build(user);
+    private UserDetailsImpl loadPrincipal(String username) {
+        List<UserRepository.AuthRow> rows = userRepository.findAuthRowsByUsername(username);
+        return rows.isEmpty() ? null : UserDetailsImpl.build(rows);
     }
 }
\ No newline at end of file
@@ -2,22 +2,83 @@ package com.example.crud.service;
 
 import com.example.crud.model.ApplicationLog;
 import com.example.crud.repository.ApplicationLogRepository;
+import com.example.crud.util.AsyncBatchWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.hibernate.HibernateException;
 import org.springframework.dao.DataAccessException;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
 
+/**
+ * Application log sink that never touches the database on the calling thread.
+ *
+ * The newest {@code app.application-log.capacity} entries live in a lock-free ring buffer that
+ * answers all queries. Ids come from an in-memory sequence seeded with the highest persisted id,
+ * so entry {@code id} always sits in slot {@code id % capacity}; a background writer persists the
+ * entries in JDBC batches and deletes everything older than the ring.
+ */
 @Service
 @Slf4j
 public class ApplicationLogService {
 
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO application_logs (id, level, logger, message, stack_trace, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String ENFORCE_RETENTION_SQL = "DELETE FROM application_logs WHERE id <= ?";
+
     @Autowired
     private ApplicationLogRepository applicationLogRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.application-log.capacity:500}")
+    private int capacity;
+
+    @Value("${app.application-log.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.application-log.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.application-log.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    private AtomicReferenceArray<ApplicationLog> ring;
+    private final AtomicLong lastId = new AtomicLong();
+    private AsyncBatchWriter<ApplicationLog> writer;
+
+    @PostConstruct
+    public void init() {
+        ring = new AtomicReferenceArray<>(capacity);
+        List<ApplicationLog> newest = applicationLogRepository.findAllByOrderByIdDesc(PageRequest.of(0, capacity));
+        for (ApplicationLog entry : newest) {
+            ring.set(slot(entry.getId()), entry);
+        }
+        lastId.set(newest.isEmpty() ? 0 : newest.get(0).getId());
+
+        writer = new AsyncBatchWriter<>("application-log", queueCapacity, batchSize, flushIntervalMs, this::writeBatch);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.stop();
+    }
+
     public void logInfo(String message) {
         log.info(message);
         saveLog("INFO", log.getClass().getName(), message, null);
@@ -30,13 +91,7 @@ public class ApplicationLogService {
 
     public void logError(String message, Throwable throwable) {
         log.error(message, throwable);
-        
-        // Don't attempt to save log if it's a database access error
-        if (throwable instanceof DataAccessException || throwable instanceof HibernateException) {
-            log.error("Not saving log to database due to database error: {}", throwable.getMessage());
-            return;
-        }
-        
+
         String stackTrace = null;
         if (throwable != null) {
             StringBuilder sb = new StringBuilder();
@@ -45,8 +100,15 @@ public class ApplicationLogService {
             }
             stackTrace = sb.toString();
         }
-        
-        saveLog("ERROR", log.getClass().getName(), message, stackTrace);
+
+        ApplicationLog entry = record("ERROR", log.getClass().getName(), message, stackTrace);
+
+        // Don't attempt to save log if it's a database access error, it stays visible in memory
+        if (throwable instanceof DataAccessException || throwable instanceof HibernateException) {
+            log.error("Not saving log to database due to database error: {}", throwable.getMessage());
+            return;
+        }
+        persist(entry);
     }
 
     public void logDebug(String message) {
@@ -54,43 +116,74 @@ public class ApplicationLogService {
         saveLog("DEBUG", log.getClass().getName(), message, null);
     }
 
-    @Transactional
     private void saveLog(String level, String logger, String message, String stackTrace) {
-        try {
-            ApplicationLog applicationLog = new ApplicationLog(level, logger, message, stackTrace);
-            applicationLogRepository.save(applicationLog);
-            
-            // Check if we exceed the maximum number of logs (500)
-            try {
-                List<ApplicationLog> allLogs = applicationLogRepository.findAllOrderByTimestampDesc();
-                if (allLogs.size() > 500) {
-                    // Delete the oldest logs
-                    List<ApplicationLog> logsToDelete = allLogs.subList(500, allLogs.size());
-                    applicationLogRepository.deleteAll(logsToDelete);
-                }
-            } catch (Exception e) {
-                // If we can't clean up logs, just log the error but don't throw
-                log.error("Failed to clean up old logs: {}", e.getMessage());
-            }
-        } catch (Exception e) {
+        persist(record(level, logger, message, stackTrace));
+    }
+
+    private ApplicationLog record(String level, String logger, String message, String stackTrace) {
+        ApplicationLog entry = new ApplicationLog(level, logger, message, stackTrace);
+        entry.setId(lastId.incrementAndGet());
+        ring.set(slot(entry.getId()), entry);
+        return entry;
+    }
+
+    private void persist(ApplicationLog entry) {
+        if (!writer.offer(entry)) {
             // Log the error to console but don't attempt to save it to database to avoid recursion
-            log.error("Failed to save log to database: {}", e.getMessage());
+            log.error("Application log queue full, entry {} kept in memory only", entry.getId());
         }
     }
 
     public List<ApplicationLog> getAllLogs() {
-        return applicationLogRepository.findAllOrderByTimestampDesc();
+        return snapshot(entry -> true);
     }
 
     public List<ApplicationLog> getLogsByLevel(String level) {
-        return applicationLogRepository.findByLevelOrderByTimestampDesc(level);
+        return snapshot(entry -> entry.getLevel().equals(level));
     }
 
     public List<ApplicationLog> getLogsByLogger(String logger) {
-        return applicationLogRepository.findByLoggerOrderByTimestampDesc(logger);
+        return snapshot(entry -> entry.getLogger().equals(logger));
     }
-    
+
     public List<ApplicationLog> searchLogs(String keyword) {
-        return applicationLogRepository.findByMessageContainingOrderByTimestampDesc(keyword);
+        return snapshot(entry -> entry.getMessage() != null && entry.getMessage().contains(keyword));
+    }
+
+    public Map<String, Object> getWriterStats() {
+        Map<String, Object> stats = writer.getStats();
+        stats.put("ringCapacity", capacity);
+        stats.put("lastId", lastId.get());
+        return stats;
+    }
+
+    // Newest first; a slot whose id does not match has been claimed but not yet filled, or already overwritten
+    private List<ApplicationLog> snapshot(Predicate<ApplicationLog> filter) {
+        long newestId = lastId.get();
+        List<ApplicationLog> result = new ArrayList<>();
+        for (long id = newestId; id > 0 && id > newestId - capacity; id--) {
+            ApplicationLog entry = ring.get(slot(id));
+            if (entry != null && entry.getId() == id && filter.test(entry)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private int slot(long id) {
+        return (int) (id % capacity);
+    }
+
+    private void writeBatch(List<ApplicationLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getId());
+            ps.setString(2, entry.getLevel());
+            ps.setString(3, entry.getLogger());
+            ps.setString(4, entry.getMessage());
+            ps.setString(5, entry.getStackTrace());
+            ps.setTimestamp(6, Timestamp.valueOf(entry.getTimestamp()));
+        });
+        long newestWritten = batch.stream().mapToLong(ApplicationLog::getId).max().orElse(0);
+        jdbcTemplate.update(ENFORCE_RETENTION_SQL, newestWritten - capacity);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,237 @@
+package com.example.crud.service;
+
+import com.example.crud.config.CacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the per-cache Caffeine specifications and rebuilds native caches in place when they change.
+ *
+ * Specs use the {@link CaffeineSpec} syntax and are read from {@code app.cache.spec.<cacheName>}.
+ * A rebuild copies the hottest entries of the old cache into the new one before swapping it into
+ * the {@link CaffeineCacheManager}, so a resize under load does not start from a cold cache.
+ */
+@Service
+public class CacheTuningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheTuningService.class);
+
+    private static final String MAXIMUM_SIZE = "maximumSize";
+    private static final String MAXIMUM_WEIGHT = "maximumWeight";
+    private static final String REFRESH_AFTER_WRITE = "refreshAfterWrite";
+    private static final String RECORD_STATS = "recordStats";
+
+    // Collections (e.g. cached id lists) weigh as many units as they hold elements, everything else weighs 1
+    private static final Weigher<Object, Object> ENTRY_WEIGHER = (key, value) ->
+            value instanceof Collection ? Math.max(1, ((Collection<?>) value).size()) : 1;
+
+    @Autowired
+    private CaffeineCacheManager cacheManager;
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<String, String> specs = new ConcurrentHashMap<>();
+    private final Map<String, CacheLoader<Object, Object>> loaders = new ConcurrentHashMap<>();
+
+    // Replaced cache -> the cache that replaced it; weak so a replaced cache is dropped once unused
+    private final Map<Cache<Object, Object>, Cache<Object, Object>> successors =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    @PostConstruct
+    public void applyConfiguredSpecs() {
+        String defaultSpec = environment.getProperty("app.cache.default-spec", CacheConfig.DEFAULT_SPEC);
+        for (String cacheName : CacheConfig.CACHE_NAMES) {
+            String spec = environment.getProperty("app.cache.spec." + cacheName, defaultSpec);
+            rebuild(cacheName, parseSpec(spec));
+        }
+    }
+
+    /**
+     * Registers the loader used for refreshAfterWrite. Caches whose spec asks for refreshes
+     * are rebuilt so the loader takes effect.
+     */
+    public void registerLoader(String cacheName, CacheLoader<Object, Object> loader) {
+        loaders.put(cacheName, loader);
+        String spec = specs.get(cacheName);
+        if (spec != null && parseSpec(spec).containsKey(REFRESH_AFTER_WRITE)) {
+            rebuild(cacheName, parseSpec(spec));
+        }
+    }
+
+    public Map<String, String> getSpecs() {
+        return new HashMap<>(specs);
+    }
+
+    public String getSpec(String cacheName) {
+        return specs.get(cacheName);
+    }
+
+    /**
+     * Applies the given spec options on top of the cache's current spec and rebuilds it.
+     * A value of {@code null} removes the option, an empty string sets a flag option such as recordStats.
+     *
+     * @return number of entries carried over into the rebuilt cache
+     */
+    public int reconfigure(String cacheName, Map<String, String> overrides) {
+        if (!CacheConfig.CACHE_NAMES.contains(cacheName)) {
+            throw new IllegalArgumentException("Cache '" + cacheName + "' not found");
+        }
+        Map<String, String> options = parseSpec(specs.getOrDefault(cacheName, CacheConfig.DEFAULT_SPEC));
+        if (overrides.containsKey(MAXIMUM_SIZE)) {
+            options.remove(MAXIMUM_WEIGHT);
+        }
+        if (overrides.containsKey(MAXIMUM_WEIGHT)) {
+            options.remove(MAXIMUM_SIZE);
+        }
+        overrides.forEach((option, value) -> {
+            if (value == null) {
+                options.remove(option);
+            } else {
+                options.put(option, value);
+            }
+        });
+        return rebuild(cacheName, options);
+    }
+
+    /**
+     * Replaces the cache's spec entirely and rebuilds it.
+     */
+    public int replaceSpec(String cacheName, String spec) {
+        if (!CacheConfig.CACHE_NAMES.contains(cacheName)) {
+            throw new IllegalArgumentException("Cache '" + cacheName + "' not found");
+        }
+        return rebuild(cacheName, parseSpec(spec));
+    }
+
+    private synchronized int rebuild(String cacheName, Map<String, String> options) {
+        options.putIfAbsent(RECORD_STATS, "");
+        CacheLoader<Object, Object> loader = loaders.get(cacheName);
+        Map<String, String> effective = new LinkedHashMap<>(options);
+        if (effective.containsKey(REFRESH_AFTER_WRITE) && loader == null) {
+            // The owning service registers its loader later in startup; refresh until then is skipped
+            logger.info("Cache '{}' has no loader yet, deferring {}", cacheName, REFRESH_AFTER_WRITE);
+            effective.remove(REFRESH_AFTER_WRITE);
+        }
+        String spec = formatSpec(options);
+        Cache<Object, Object> fresh = buildCache(formatSpec(effective), loader);
+
+        Cache<Object, Object> old = currentNativeCache(cacheName);
+        if (old != null) {
+            // Callers that resolved the old cache just before the swap may still write to or evict
+            // from it afterwards; its removal listener invalidates those keys in the new cache too
+            successors.put(old, fresh);
+        }
+        Map<Object, Object> carried = old == null ? Map.of() : hottestEntries(old, capacityOf(effective));
+        fresh.putAll(carried);
+
+        cacheManager.registerCustomCache(cacheName, fresh);
+        specs.put(cacheName, spec);
+
+        // Writes and evictions that hit the old cache while entries were being copied must not be lost;
+        // a forwarded invalidation may have run before the copy put the old value back
+        if (old != null) {
+            carried.forEach((key, value) -> {
+                if (old.policy().getIfPresentQuietly(key) != value) {
+                    fresh.invalidate(key);
+                }
+            });
+        }
+
+        logger.info("Cache '{}' rebuilt with spec [{}], carried over {} entries", cacheName, spec, carried.size());
+        return carried.size();
+    }
+
+    private Cache<Object, Object> buildCache(String spec, CacheLoader<Object, Object> loader) {
+        Caffeine<Object, Object> builder = Caffeine.from(CaffeineSpec.parse(spec));
+        if (spec.contains(MAXIMUM_WEIGHT)) {
+            builder = builder.weigher(ENTRY_WEIGHER);
+        }
+        AtomicReference<Cache<Object, Object>> self = new AtomicReference<>();
+        builder = builder.removalListener((key, value, cause) -> forwardRemoval(self.get(), key, cause));
+        Cache<Object, Object> cache = loader != null ? builder.build(loader) : builder.build();
+        self.set(cache);
+        return cache;
+    }
+
+    /**
+     * Once a cache has been replaced, an explicit eviction or an overwrite in it also invalidates the
+     * key in its successor, so the new cache never keeps a value the old one has dropped. Listeners run
+     * asynchronously, so the successor can serve such a value for a moment after the removal.
+     */
+    private void forwardRemoval(Cache<Object, Object> cache, Object key, RemovalCause cause) {
+        if (key == null || cache == null || (cause != RemovalCause.EXPLICIT && cause != RemovalCause.REPLACED)) {
+            return;
+        }
+        Cache<Object, Object> successor = successors.get(cache);
+        if (successor != null) {
+            successor.invalidate(key);
+        }
+    }
+
+    private Cache<Object, Object> currentNativeCache(String cacheName) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+        return cache instanceof CaffeineCache ? ((CaffeineCache) cache).getNativeCache() : null;
+    }
+
+    private Map<Object, Object> hottestEntries(Cache<Object, Object> cache, long capacity) {
+        int limit = (int) Math.min(Integer.MAX_VALUE, Math.min(capacity, cache.estimatedSize()));
+        return cache.policy().eviction()
+                .map(eviction -> eviction.hottest(limit))
+                .orElseGet(() -> new LinkedHashMap<>(cache.asMap()));
+    }
+
+    private long capacityOf(Map<String, String> options) {
+        String maximumSize = options.get(MAXIMUM_SIZE);
+        return maximumSize != null ? Long.parseLong(maximumSize) : Long.MAX_VALUE;
+    }
+
+    private Map<String, String> parseSpec(String spec) {
+        Map<String, String> options = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return options;
+        }
+        for (String option : spec.split(",")) {
+            String[] keyValue = option.trim().split("=", 2);
+            if (!keyValue[0].isEmpty()) {
+                options.put(keyValue[0].trim(), keyValue.length > 1 ? keyValue[1].trim() : "");
+            }
+        }
+        return options;
+    }
+
+    private String formatSpec(Map<String, String> options) {
+        StringBuilder spec = new StringBuilder();
+        options.forEach((option, value) -> {
+            if (spec.length() > 0) {
+                spec.append(',');
+            }
+            spec.append(option);
+            if (!value.isEmpty()) {
+                spec.append('=').append(value);
+            }
+        });
+        return spec.toString();
+    }
+}
@@ -1,10 +1,9 @@
 package com.example.crud.service;
 
-import com.example.crud.model.User;
-import com.example.crud.repository.UserRepository;
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.example.crud.exception.InvalidProfileImageException;
+import com.example.crud.service.ProfileImageStore.StoredImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -13,7 +12,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class DataMigrationService {
@@ -21,10 +22,10 @@ public class DataMigrationService {
     private static final Logger logger = LoggerFactory.getLogger(DataMigrationService.class);
     
     @Autowired
-    private UserRepository userRepository;
+    private EncryptionMigrationService encryptionMigrationService;
     
     @Autowired
-    private EncryptionService encryptionService;
+    private ProfileImageStore profileImageStore;
     
     @Autowired
     private JdbcTemplate jdbcTemplate;
@@ -43,6 +44,11 @@ public class DataMigrationService {
                 logger.error("Failed to perform migrations", e);
             }
         }
+        try {
+            migrateProfileImages();
+        } catch (Exception e) {
+            logger.error("Failed to migrate profile images", e);
+        }
     }
     
     @Transactional
@@ -56,92 +62,55 @@ public class DataMigrationService {
         logger.info("Updated {} products with null version to version 0", updatedCount);
     }
     
-    @Transactional
+    /**
+     * Encrypts (or re-encrypts to the current key) the encrypted user columns, resuming an
+     * interrupted run from its checkpoint.
+     */
     public void migrateDataToEncrypted() {
-        logger.info("Starting data migration to encrypted format");
-        
-        // Get all users directly from database to bypass JPA converters
-        List<Object[]> userData = jdbcTemplate.query(
-            "SELECT id, email, mfa_secret FROM users",
-            (rs, rowNum) -> new Object[] {
-                rs.getLong("id"),
-                rs.getString("email"),
-                rs.getString("mfa_secret")
-            }
+        encryptionMigrationService.run(false);
+    }
+
+    /**
+     * Moves images from the legacy users.profile_image column (base64 data URLs) into the
+     * profile image store, leaving only the hash on the row. Skipped if the column does not exist.
+     */
+    public void migrateProfileImages() {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE UPPER(TABLE_NAME) = 'USERS' AND UPPER(COLUMN_NAME) = 'PROFILE_IMAGE'",
+            Integer.class
         );
-        
-        // Process each user
-        for (Object[] data : userData) {
-            Long id = (Long) data[0];
-            String email = (String) data[1];
-            String mfaSecret = (String) data[2];
-            
-            if (email != null) {
-                // Check if already encrypted by trying to decode Base64
-                try {
-                    encryptionService.decrypt(email);
-                    // No exception, means it's likely already encrypted
-                    logger.debug("Email for user {} appears to be already encrypted", id);
-                } catch (Exception e) {
-                    // Not encrypted or invalid format, encrypt it
-                    String encryptedEmail = encryptionService.encrypt(email);
-                    jdbcTemplate.update(
-                        "UPDATE users SET email = ? WHERE id = ?",
-                        encryptedEmail, id
-                    );
-                    logger.debug("Encrypted email for user {}", id);
-                }
-            }
-            
-            if (mfaSecret != null) {
-                // Check if already encrypted
-                try {
-                    encryptionService.decrypt(mfaSecret);
-                    // No exception, means it's likely already encrypted
-                    logger.debug("MFA secret for user {} appears to be already encrypted", id);
-                } catch (Exception e) {
-                    // Not encrypted or invalid format, encrypt it
-                    String encryptedMfaSecret = encryptionService.encrypt(mfaSecret);
-                    jdbcTemplate.update(
-                        "UPDATE users SET mfa_secret = ? WHERE id = ?",
-                        encryptedMfaSecret, id
-                    );
-                    logger.debug("Encrypted MFA secret for user {}", id);
-                }
-            }
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
         }
         
-        // Migrate recovery codes
-        List<Object[]> recoveryCodes = jdbcTemplate.query(
-            "SELECT user_id, recovery_code FROM user_recovery_codes",
-            (rs, rowNum) -> new Object[] {
-                rs.getLong("user_id"),
-                rs.getString("recovery_code")
+        int migrated = 0;
+        long lastId = 0;
+        while (true) {
+            // A few rows at a time, each row can hold megabytes
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, profile_image FROM users WHERE id > ? AND profile_image IS NOT NULL ORDER BY id LIMIT 20",
+                lastId
+            );
+            if (rows.isEmpty()) {
+                break;
             }
-        );
-        
-        for (Object[] data : recoveryCodes) {
-            Long userId = (Long) data[0];
-            String code = (String) data[1];
-            
-            if (code != null) {
-                // Check if already encrypted
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                String dataUrl = (String) row.get("profile_image");
                 try {
-                    encryptionService.decrypt(code);
-                    // No exception, means it's likely already encrypted
-                    logger.debug("Recovery code for user {} appears to be already encrypted", userId);
-                } catch (Exception e) {
-                    // Not encrypted or invalid format, encrypt it
-                    String encryptedCode = encryptionService.encrypt(code);
+                    StoredImage image = profileImageStore.storeDataUrl(dataUrl);
                     jdbcTemplate.update(
-                        "UPDATE user_recovery_codes SET recovery_code = ? WHERE user_id = ? AND recovery_code = ?",
-                        encryptedCode, userId, code
+                        "UPDATE users SET profile_image_hash = ?, profile_image_type = ?, profile_image = NULL WHERE id = ?",
+                        image.hash(), image.contentType(), lastId
                     );
-                    logger.debug("Encrypted recovery code for user {}", userId);
+                    migrated++;
+                } catch (IOException | InvalidProfileImageException e) {
+                    logger.warn("Could not migrate profile image of user {}: {}", lastId, e.getMessage());
                 }
             }
         }
-        
-        logger.info("Data migration to encrypted format completed successfully");
+        if (migrated > 0) {
+            logger.info("Moved {} profile images to the profile image store", migrated);
+        }
     }
-} 
\ No newline at end of file
+}
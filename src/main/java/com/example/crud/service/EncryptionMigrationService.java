@@ -0,0 +1,388 @@
+package com.example.crud.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resumable re-encryption of the encrypted user columns (email, MFA secret, recovery codes) to the
+ * current key and format. Used for the initial migration from plain text and for key rotation.
+ *
+ * Users are processed in chunks of {@code app.encryption.migration.chunk-size} ids using keyset reads.
+ * Values are re-encrypted in parallel on a dedicated fork-join pool and written back with JDBC batch
+ * updates; each chunk commits in its own transaction together with its checkpoint row, so a crashed
+ * run resumes after the last committed chunk. Updates only apply if the stored value is unchanged
+ * since it was read; a concurrent write already stored it in the current format.
+ */
+@Service
+public class EncryptionMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EncryptionMigrationService.class);
+
+    public static final String JOB_NAME = "field-encryption";
+
+    private static final String CREATE_CHECKPOINT_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS encryption_migration_checkpoints (" +
+            "job_name VARCHAR(64) PRIMARY KEY, key_id VARCHAR(16) NOT NULL, last_id BIGINT NOT NULL, " +
+            "status VARCHAR(16) NOT NULL, processed_users BIGINT NOT NULL, updated_values BIGINT NOT NULL, " +
+            "updated_at TIMESTAMP NOT NULL)";
+
+    private static final String SELECT_CHECKPOINT_SQL =
+            "SELECT key_id, last_id, status, processed_users, updated_values FROM encryption_migration_checkpoints WHERE job_name = ?";
+
+    private static final String SAVE_CHECKPOINT_SQL =
+            "MERGE INTO encryption_migration_checkpoints (job_name, key_id, last_id, status, processed_users, updated_values, updated_at) " +
+            "KEY (job_name) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_USERS_SQL =
+            "SELECT id, email, mfa_secret FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_RECOVERY_CODES_SQL =
+            "SELECT user_id, recovery_code FROM user_recovery_codes WHERE user_id > ? AND user_id <= ?";
+
+    private static final String UPDATE_USER_SQL =
+            "UPDATE users SET email = ?, mfa_secret = ? WHERE id = ? " +
+            "AND email IS NOT DISTINCT FROM ? AND mfa_secret IS NOT DISTINCT FROM ?";
+
+    private static final String UPDATE_RECOVERY_CODE_SQL =
+            "UPDATE user_recovery_codes SET recovery_code = ? WHERE user_id = ? AND recovery_code = ?";
+
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.encryption.migration.chunk-size:1000}")
+    private int chunkSize;
+
+    // 0 uses one worker per available processor
+    @Value("${app.encryption.migration.parallelism:0}")
+    private int parallelism;
+
+    private TransactionTemplate chunkTransaction;
+    private ForkJoinPool encryptionPool;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastId = new AtomicLong();
+    private final AtomicLong processedUsers = new AtomicLong();
+    private final AtomicLong updatedValues = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private volatile String status = "IDLE";
+    private volatile String keyId;
+    private volatile long totalUsers;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private volatile String completedKeyId;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute(CREATE_CHECKPOINT_TABLE_SQL);
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        encryptionPool = new ForkJoinPool(workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        encryptionPool.shutdown();
+    }
+
+    /**
+     * Starts a run on a background thread.
+     * @param restart ignore the checkpoint and process every user again
+     * @return false if a run is already in progress
+     */
+    public boolean startAsync(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> execute(restart), "encryption-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Runs (or resumes) the migration on the calling thread. Returns immediately if every user has
+     * already been migrated to the current key.
+     */
+    public void run(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Encryption migration is already running");
+        }
+        execute(restart);
+        if (STATUS_FAILED.equals(status)) {
+            throw new IllegalStateException("Encryption migration failed: " + error);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return true once the checkpoint says every user has been re-encrypted with the current key;
+     *         until then stored values may be in any form of {@link EncryptionService#storedForms(String)}
+     */
+    public boolean isCompleted() {
+        String currentKeyId = encryptionService.getCurrentKeyId();
+        if (currentKeyId.equals(completedKeyId)) {
+            return true;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, JOB_NAME);
+        if (!rows.isEmpty() && currentKeyId.equals(rows.get(0).get("key_id"))
+                && STATUS_COMPLETED.equals(rows.get(0).get("status"))) {
+            // Values written from now on are in the current form, so this never has to be checked again
+            completedKeyId = currentKeyId;
+            return true;
+        }
+        return false;
+    }
+
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("status", status);
+        progress.put("running", running.get());
+        progress.put("keyId", keyId);
+        progress.put("lastId", lastId.get());
+        progress.put("processedUsers", processedUsers.get());
+        progress.put("totalUsers", totalUsers);
+        progress.put("updatedValues", updatedValues.get());
+        progress.put("chunks", chunks.get());
+        progress.put("chunkSize", chunkSize);
+        progress.put("parallelism", encryptionPool.getParallelism());
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("error", error);
+        return progress;
+    }
+
+    private void execute(boolean restart) {
+        try {
+            keyId = encryptionService.getCurrentKeyId();
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            error = null;
+            chunks.set(0);
+            if (!resumeFromCheckpoint(restart)) {
+                status = STATUS_COMPLETED;
+                logger.info("Encrypted columns already migrated to key {}", keyId);
+                return;
+            }
+            status = STATUS_RUNNING;
+            totalUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            logger.info("Starting encryption migration to key {} after user id {}", keyId, lastId.get());
+
+            while (migrateChunk()) {
+                chunks.incrementAndGet();
+            }
+
+            saveCheckpoint(STATUS_COMPLETED);
+            status = STATUS_COMPLETED;
+            logger.info("Encryption migration completed: {} users, {} values updated", processedUsers.get(), updatedValues.get());
+        } catch (Exception e) {
+            status = STATUS_FAILED;
+            error = e.getMessage();
+            logger.error("Encryption migration failed after user id {}", lastId.get(), e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Positions the run after the last committed chunk of an interrupted run for the same key.
+     * @return false if the checkpoint says the current key is already fully applied
+     */
+    private boolean resumeFromCheckpoint(boolean restart) {
+        lastId.set(0);
+        processedUsers.set(0);
+        updatedValues.set(0);
+        if (restart) {
+            return true;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, JOB_NAME);
+        if (rows.isEmpty() || !keyId.equals(rows.get(0).get("key_id"))) {
+            return true;
+        }
+        Map<String, Object> checkpoint = rows.get(0);
+        if (STATUS_COMPLETED.equals(checkpoint.get("status"))) {
+            return false;
+        }
+        lastId.set(((Number) checkpoint.get("last_id")).longValue());
+        processedUsers.set(((Number) checkpoint.get("processed_users")).longValue());
+        updatedValues.set(((Number) checkpoint.get("updated_values")).longValue());
+        return true;
+    }
+
+    /**
+     * @return false once there are no users left after the checkpoint
+     */
+    private boolean migrateChunk() throws InterruptedException, ExecutionException {
+        long fromId = lastId.get();
+        List<UserRow> users = jdbcTemplate.query(SELECT_USERS_SQL,
+                (rs, rowNum) -> new UserRow(rs.getLong("id"), rs.getString("email"), rs.getString("mfa_secret")),
+                fromId, chunkSize);
+        if (users.isEmpty()) {
+            return false;
+        }
+        long toId = users.get(users.size() - 1).id;
+        List<RecoveryCodeRow> codes = jdbcTemplate.query(SELECT_RECOVERY_CODES_SQL,
+                (rs, rowNum) -> new RecoveryCodeRow(rs.getLong("user_id"), rs.getString("recovery_code")),
+                fromId, toId);
+
+        // The CPU-bound part runs on the pool; rows that are already current come back unchanged
+        List<UserRow> changedUsers = encryptionPool.submit(() -> users.parallelStream()
+                .map(UserRow::reencrypted)
+                .filter(UserRow::changed)
+                .toList()).get();
+        List<RecoveryCodeRow> changedCodes = encryptionPool.submit(() -> codes.parallelStream()
+                .map(RecoveryCodeRow::reencrypted)
+                .filter(RecoveryCodeRow::changed)
+                .toList()).get();
+
+        int updated = chunkTransaction.execute(tx -> {
+            int count = 0;
+            if (!changedUsers.isEmpty()) {
+                int[][] results = jdbcTemplate.batchUpdate(UPDATE_USER_SQL, changedUsers, changedUsers.size(), (ps, row) -> {
+                    ps.setString(1, row.newEmail);
+                    ps.setString(2, row.newMfaSecret);
+                    ps.setLong(3, row.id);
+                    ps.setString(4, row.email);
+                    ps.setString(5, row.mfaSecret);
+                });
+                count += countUpdated(results);
+            }
+            if (!changedCodes.isEmpty()) {
+                int[][] results = jdbcTemplate.batchUpdate(UPDATE_RECOVERY_CODE_SQL, changedCodes, changedCodes.size(), (ps, row) -> {
+                    ps.setString(1, row.newCode);
+                    ps.setLong(2, row.userId);
+                    ps.setString(3, row.code);
+                });
+                count += countUpdated(results);
+            }
+            jdbcTemplate.update(SAVE_CHECKPOINT_SQL, JOB_NAME, keyId, toId, STATUS_RUNNING,
+                    processedUsers.get() + users.size(), updatedValues.get() + count, Timestamp.valueOf(LocalDateTime.now()));
+            return count;
+        });
+
+        lastId.set(toId);
+        processedUsers.addAndGet(users.size());
+        updatedValues.addAndGet(updated);
+        logger.debug("Re-encrypted users {}..{}: {} rows updated", fromId + 1, toId, updated);
+        return users.size() == chunkSize;
+    }
+
+    private void saveCheckpoint(String checkpointStatus) {
+        jdbcTemplate.update(SAVE_CHECKPOINT_SQL, JOB_NAME, keyId, lastId.get(), checkpointStatus,
+                processedUsers.get(), updatedValues.get(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static int countUpdated(int[][] results) {
+        int count = 0;
+        for (int[] batch : results) {
+            for (int rows : batch) {
+                // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                count += rows < 0 ? 1 : rows;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Brings a stored value to the current encryption format: legacy or rotated ciphertext is
+     * decrypted and re-encrypted, plain text is encrypted.
+     *
+     * A value in the shape of ciphertext that does not decrypt fails the chunk, so the run stops
+     * before its checkpoint moves. Plain emails, MFA secrets and recovery codes never have that shape;
+     * such a failure means a key is missing from {@code app.encryption.previous-secrets}, and
+     * encrypting the ciphertext as plain text would lose the value.
+     * @return the value to store, or the same instance if it is already current (or null)
+     */
+    private String reencrypt(String storedValue) {
+        if (storedValue == null || encryptionService.isCurrentFormat(storedValue)) {
+            return storedValue;
+        }
+        String plaintext = storedValue;
+        if (encryptionService.looksEncrypted(storedValue)) {
+            try {
+                plaintext = encryptionService.decrypt(storedValue);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Could not decrypt a stored value with the configured keys; " +
+                        "check app.encryption.previous-secrets", e);
+            }
+        }
+        return encryptionService.encrypt(plaintext);
+    }
+
+    private final class UserRow {
+        private final long id;
+        private final String email;
+        private final String mfaSecret;
+        private String newEmail;
+        private String newMfaSecret;
+
+        private UserRow(long id, String email, String mfaSecret) {
+            this.id = id;
+            this.email = email;
+            this.mfaSecret = mfaSecret;
+        }
+
+        private UserRow reencrypted() {
+            newEmail = reencrypt(email);
+            newMfaSecret = reencrypt(mfaSecret);
+            return this;
+        }
+
+        private boolean changed() {
+            return newEmail != email || newMfaSecret != mfaSecret;
+        }
+    }
+
+    private final class RecoveryCodeRow {
+        private final long userId;
+        private final String code;
+        private String newCode;
+
+        private RecoveryCodeRow(long userId, String code) {
+            this.userId = userId;
+            this.code = code;
+        }
+
+        private RecoveryCodeRow reencrypted() {
+            newCode = reencrypt(code);
+            return this;
+        }
+
+        private boolean changed() {
+            return newCode != code;
+        }
+    }
+}
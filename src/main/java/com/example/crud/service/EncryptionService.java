@@ -1,32 +1,100 @@
 package com.example.crud.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Field encryption for the values stored through {@code StringEncryptedConverter}.
+ *
+ * New values are written as {@code v2:<keyId>:<base64(iv || ciphertext || tag)>} using AES-256-GCM.
+ * The IV is synthetic (an HMAC of the plaintext), so equal plaintexts encrypt to equal ciphertexts
+ * under one key, which leaks no more than the previous deterministic ECB format did. Equality only
+ * holds within one key and format: until {@code EncryptionMigrationService} has completed for the
+ * current key, rows may still hold plain text, legacy ciphertext or ciphertext under a previous key,
+ * so lookups by an encrypted column must match every form returned by {@link #storedForms(String)},
+ * and the unique constraint on {@code users.email} does not catch duplicates across forms.
+ *
+ * Keys are derived once at startup from {@code app.encryption.secret}; secrets listed in
+ * {@code app.encryption.previous-secrets} remain readable. Legacy values without a header are
+ * AES/ECB with the secret truncated to 16 bytes and are still decrypted transparently; each legacy key
+ * is tried in turn and its result is only accepted if it is well-formed UTF-8.
+ */
 @Service
 public class EncryptionService {
 
+    public static final String CURRENT_VERSION_PREFIX = "v2:";
+
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "AES";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
     @Value("${app.encryption.secret}")
     private String encryptionKey;
 
-    private static final String ALGORITHM = "AES";
+    @Value("${app.encryption.previous-secrets:}")
+    private List<String> previousSecrets;
+
+    // Plaintexts of recently read values keyed by their stored form; 0 disables the cache
+    @Value("${app.encryption.decrypt-cache-size:10000}")
+    private long decryptCacheSize;
+
+    private Cache<String, String> decryptedValues;
+
+    private KeySet currentKeys;
+    private final Map<String, KeySet> keysById = new LinkedHashMap<>();
+    private final List<SecretKey> legacyKeys = new ArrayList<>();
+
+    // Cipher and Mac instances are not thread-safe; each thread keeps its own and re-initializes it per call
+    private final ThreadLocal<ThreadCrypto> threadCrypto = ThreadLocal.withInitial(ThreadCrypto::new);
+
+    @PostConstruct
+    public void init() {
+        decryptedValues = Caffeine.newBuilder().maximumSize(decryptCacheSize).build();
+        currentKeys = new KeySet(encryptionKey);
+        keysById.put(currentKeys.keyId, currentKeys);
+        legacyKeys.add(legacyKey(encryptionKey));
+        for (String secret : previousSecrets) {
+            if (!secret.isBlank()) {
+                KeySet previous = new KeySet(secret.trim());
+                keysById.putIfAbsent(previous.keyId, previous);
+                legacyKeys.add(legacyKey(secret.trim()));
+            }
+        }
+    }
 
     public String encrypt(String data) {
         try {
             if (data == null) {
                 return null;
             }
-            Key key = generateKey();
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-            byte[] encryptedBytes = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            return threadCrypto.get().encrypt(data);
         } catch (Exception e) {
             throw new RuntimeException("Error encrypting data", e);
         }
@@ -37,21 +105,244 @@ public class EncryptionService {
             if (encryptedData == null) {
                 return null;
             }
-            Key key = generateKey();
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, key);
-            byte[] decryptedBytes = cipher.doFinal(Base64.getDecoder().decode(encryptedData));
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
+            if (encryptedData.startsWith(CURRENT_VERSION_PREFIX)) {
+                return threadCrypto.get().decryptGcm(encryptedData);
+            }
+            return threadCrypto.get().decryptLegacy(encryptedData);
         } catch (Exception e) {
             throw new RuntimeException("Error decrypting data", e);
         }
     }
 
-    private Key generateKey() {
-        byte[] keyBytes = encryptionKey.getBytes(StandardCharsets.UTF_8);
+    /**
+     * Encrypts a value for storage and remembers its plaintext for {@link #decryptStoredValue(String)}.
+     */
+    public String encryptForStorage(String data) {
+        String encrypted = encrypt(data);
+        if (encrypted != null) {
+            decryptedValues.put(encrypted, data);
+        }
+        return encrypted;
+    }
+
+    /**
+     * Decrypts a stored value, passing plain text through. Whether a value is encrypted is decided from
+     * its shape, so plain text never goes through a failing decryption; results are cached.
+     * @throws RuntimeException if a value with the v2 header cannot be decrypted (unknown key id or a
+     *         failed tag check); returning the ciphertext would have it saved as the plaintext
+     */
+    public String decryptStoredValue(String storedValue) {
+        if (storedValue == null || !looksEncrypted(storedValue)) {
+            return storedValue;
+        }
+        if (storedValue.startsWith(CURRENT_VERSION_PREFIX)) {
+            return decryptedValues.get(storedValue, this::decrypt);
+        }
+        return decryptedValues.get(storedValue, value -> {
+            try {
+                return decrypt(value);
+            } catch (RuntimeException e) {
+                // Plain text that happens to look like legacy ciphertext
+                return value;
+            }
+        });
+    }
+
+    /**
+     * @return true if the value has the v2 header, or the shape of legacy ciphertext:
+     *         base64 of a whole number of AES blocks
+     */
+    public boolean looksEncrypted(String value) {
+        if (value.startsWith(CURRENT_VERSION_PREFIX)) {
+            return true;
+        }
+        int length = value.length();
+        if (length == 0 || length % 4 != 0) {
+            return false;
+        }
+        int padding = value.endsWith("==") ? 2 : value.endsWith("=") ? 1 : 0;
+        for (int i = 0; i < length - padding; i++) {
+            char c = value.charAt(i);
+            boolean base64 = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+' || c == '/';
+            if (!base64) {
+                return false;
+            }
+        }
+        int decodedLength = length / 4 * 3 - padding;
+        return decodedLength % 16 == 0;
+    }
+
+    /**
+     * @return every form in which {@code plaintext} may be stored and read back by this service: the
+     *         current format, the v2 format under each previous key, legacy ciphertext under each
+     *         legacy key, and the plain text itself
+     */
+    public List<String> storedForms(String plaintext) {
+        Set<String> forms = new LinkedHashSet<>();
+        forms.add(encrypt(plaintext));
+        try {
+            for (KeySet keys : keysById.values()) {
+                if (keys != currentKeys) {
+                    forms.add(encryptGcm(plaintext, keys));
+                }
+            }
+            for (SecretKey key : legacyKeys) {
+                Cipher legacy = Cipher.getInstance(LEGACY_TRANSFORMATION);
+                legacy.init(Cipher.ENCRYPT_MODE, key);
+                forms.add(Base64.getEncoder().encodeToString(legacy.doFinal(plaintext.getBytes(StandardCharsets.UTF_8))));
+            }
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error encrypting data", e);
+        }
+        forms.add(plaintext);
+        return new ArrayList<>(forms);
+    }
+
+    /**
+     * @return true if the value is in the current format and encrypted with the current key
+     */
+    public boolean isCurrentFormat(String value) {
+        return value != null && value.startsWith(CURRENT_VERSION_PREFIX + currentKeys.keyId + ":");
+    }
+
+    /**
+     * @return id of the key new values are encrypted with; changes when {@code app.encryption.secret} is rotated
+     */
+    public String getCurrentKeyId() {
+        return currentKeys.keyId;
+    }
+
+    private static SecretKey legacyKey(String secret) {
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         // Use first 16 bytes for AES-128
         byte[] truncatedKey = new byte[16];
         System.arraycopy(keyBytes, 0, truncatedKey, 0, Math.min(keyBytes.length, 16));
-        return new SecretKeySpec(truncatedKey, ALGORITHM);
+        return new SecretKeySpec(truncatedKey, LEGACY_TRANSFORMATION);
+    }
+
+    // Only used for lookups under previous keys; fresh instances leave the per-thread ones to the current key
+    private static String encryptGcm(String data, KeySet keys) throws GeneralSecurityException {
+        byte[] plaintext = data.getBytes(StandardCharsets.UTF_8);
+        Mac ivMac = Mac.getInstance(HMAC_ALGORITHM);
+        ivMac.init(keys.ivKey);
+        byte[] iv = Arrays.copyOf(ivMac.doFinal(plaintext), IV_LENGTH);
+        Cipher gcm = Cipher.getInstance(GCM_TRANSFORMATION);
+        gcm.init(Cipher.ENCRYPT_MODE, keys.aesKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        return seal(gcm, keys, iv, plaintext);
+    }
+
+    private static String seal(Cipher gcm, KeySet keys, byte[] iv, byte[] plaintext) throws GeneralSecurityException {
+        byte[] output = new byte[IV_LENGTH + gcm.getOutputSize(plaintext.length)];
+        System.arraycopy(iv, 0, output, 0, IV_LENGTH);
+        gcm.doFinal(plaintext, 0, plaintext.length, output, IV_LENGTH);
+        return CURRENT_VERSION_PREFIX + keys.keyId + ":" + Base64.getEncoder().encodeToString(output);
+    }
+
+    private static byte[] hmac(byte[] key, String label) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+        return mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encryption key, synthetic-IV key and key id derived from one secret.
+     */
+    private static final class KeySet {
+        private final SecretKey aesKey;
+        private final SecretKey ivKey;
+        private final String keyId;
+
+        private KeySet(String secret) {
+            try {
+                byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+                this.aesKey = new SecretKeySpec(hmac(secretBytes, "field-encryption/aes-256-gcm"), "AES");
+                this.ivKey = new SecretKeySpec(hmac(secretBytes, "field-encryption/synthetic-iv"), HMAC_ALGORITHM);
+                this.keyId = HexFormat.of().formatHex(Arrays.copyOf(hmac(secretBytes, "field-encryption/key-id"), 4));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not derive encryption keys", e);
+            }
+        }
+    }
+
+    private final class ThreadCrypto {
+        private Cipher gcm;
+        private final Cipher legacy;
+        private final Mac ivMac;
+        private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        // GCM refuses to encrypt twice in a row with the same key and IV; with a synthetic IV that
+        // only happens for the same plaintext, whose ciphertext is then identical anyway
+        private String lastPlaintext;
+        private String lastCiphertext;
+
+        private ThreadCrypto() {
+            try {
+                this.gcm = Cipher.getInstance(GCM_TRANSFORMATION);
+                this.legacy = Cipher.getInstance(LEGACY_TRANSFORMATION);
+                this.ivMac = Mac.getInstance(HMAC_ALGORITHM);
+                this.ivMac.init(currentKeys.ivKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Encryption algorithms not available", e);
+            }
+        }
+
+        private String encrypt(String data) throws GeneralSecurityException {
+            if (data.equals(lastPlaintext)) {
+                return lastCiphertext;
+            }
+            byte[] plaintext = data.getBytes(StandardCharsets.UTF_8);
+            byte[] iv = Arrays.copyOf(ivMac.doFinal(plaintext), IV_LENGTH);
+
+            GCMParameterSpec spec = new GCMParameterSpec(TAG_LENGTH_BITS, iv);
+            try {
+                gcm.init(Cipher.ENCRYPT_MODE, currentKeys.aesKey, spec);
+            } catch (InvalidAlgorithmParameterException e) {
+                // Same IV as an encryption that failed halfway on this thread; start from a fresh instance
+                gcm = Cipher.getInstance(GCM_TRANSFORMATION);
+                gcm.init(Cipher.ENCRYPT_MODE, currentKeys.aesKey, spec);
+            }
+            String encrypted = seal(gcm, currentKeys, iv, plaintext);
+            lastPlaintext = data;
+            lastCiphertext = encrypted;
+            return encrypted;
+        }
+
+        private String decryptGcm(String encryptedData) throws GeneralSecurityException {
+            int keyIdEnd = encryptedData.indexOf(':', CURRENT_VERSION_PREFIX.length());
+            if (keyIdEnd < 0) {
+                throw new GeneralSecurityException("Malformed encrypted value");
+            }
+            KeySet keys = keysById.get(encryptedData.substring(CURRENT_VERSION_PREFIX.length(), keyIdEnd));
+            if (keys == null) {
+                throw new GeneralSecurityException("Unknown encryption key id");
+            }
+            byte[] input = Base64.getDecoder().decode(encryptedData.substring(keyIdEnd + 1));
+            if (input.length < IV_LENGTH) {
+                throw new GeneralSecurityException("Malformed encrypted value");
+            }
+            gcm.init(Cipher.DECRYPT_MODE, keys.aesKey, new GCMParameterSpec(TAG_LENGTH_BITS, input, 0, IV_LENGTH));
+            byte[] plaintext = gcm.doFinal(input, IV_LENGTH, input.length - IV_LENGTH);
+            return new String(plaintext, StandardCharsets.UTF_8);
+        }
+
+        // ECB is unauthenticated: a wrong key passes the padding check about 1 time in 256, so a
+        // result only counts if it is also valid UTF-8, which garbage of a block or more almost never is
+        private String decryptLegacy(String encryptedData) throws GeneralSecurityException {
+            byte[] input = Base64.getDecoder().decode(encryptedData);
+            GeneralSecurityException failure = null;
+            for (SecretKey key : legacyKeys) {
+                try {
+                    legacy.init(Cipher.DECRYPT_MODE, key);
+                    return utf8.decode(ByteBuffer.wrap(legacy.doFinal(input))).toString();
+                } catch (GeneralSecurityException e) {
+                    failure = e;
+                } catch (CharacterCodingException e) {
+                    failure = new GeneralSecurityException("Legacy value did not decrypt to UTF-8 text", e);
+                }
+            }
+            throw failure;
+        }
     }
-} 
\ No newline at end of file
+}
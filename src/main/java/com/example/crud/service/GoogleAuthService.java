@@ -120,7 +120,7 @@ public class GoogleAuthService {
         String email = payload.getEmail();
         
         // Check if user exists
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<User> userOptional = userService.findOptionalByEmail(email);
         
         if (userOptional.isEmpty()) {
             throw new IllegalArgumentException("No user found with this Google account");
@@ -174,7 +174,7 @@ public class GoogleAuthService {
         String name = (String) payload.get("name");
         
         // Check if user exists
-        if (userRepository.existsByEmail(email)) {
+        if (userService.existsByEmail(email)) {
             throw new IllegalArgumentException("Email already in use");
         }
         
@@ -249,7 +249,7 @@ public class GoogleAuthService {
         }
         
         String email = payload.getEmail();
-        Optional<User> userOptional = userRepository.findByEmail(email);
+        Optional<User> userOptional = userService.findOptionalByEmail(email);
         
         if (userOptional.isEmpty()) {
             throw new IllegalArgumentException("No user found with this Google account email: " + email);
@@ -2,30 +2,82 @@ package com.example.crud.service;
 
 import com.example.crud.model.Log;
 import com.example.crud.repository.LogRepository;
+import com.example.crud.util.AsyncBatchWriter;
+import com.example.crud.util.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class LogService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LogService.class);
+
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO operation_logs (operation_type, entity_type, performed_by, timestamp, details) VALUES (?, ?, ?, ?, ?)";
+
+    // Keeps the newest N rows: everything below the N-th highest id goes in one statement
+    private static final String ENFORCE_RETENTION_SQL =
+            "DELETE FROM operation_logs WHERE id < (SELECT MIN(id) FROM " +
+            "(SELECT id FROM operation_logs ORDER BY id DESC LIMIT ?) newest)";
+
     @Autowired
     private LogRepository logRepository;
 
-    @Transactional
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.retention:150}")
+    private int retention;
+
+    private AsyncBatchWriter<Log> writer;
+
+    @PostConstruct
+    public void startWriter() {
+        writer = new AsyncBatchWriter<>("audit-log", queueCapacity, batchSize, flushIntervalMs, this::writeBatch);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stopWriter() {
+        writer.stop();
+    }
+
+    /**
+     * Queues an audit entry; it is written asynchronously once the surrounding transaction commits,
+     * so rolled back operations are not logged. Entries are dropped (and counted) if the queue is full.
+     */
     public void addLog(String operationType, String entityType, String performedBy, String details) {
-        Log log = new Log(operationType, entityType, performedBy, details);
-        logRepository.save(log);
+        Log log = new Log(operationType, entityType, performedBy != null ? performedBy : "SYSTEM", details);
+        TransactionCallbacks.afterCommit(() -> {
+            if (!writer.offer(log)) {
+                logger.warn("Audit log queue full, dropped {} {} entry by {}", operationType, entityType, log.getPerformedBy());
+            }
+        });
+    }
 
-        // Check if we exceed the maximum number of logs (150)
-        List<Log> allLogs = logRepository.findAllOrderByTimestampDesc();
-        if (allLogs.size() > 150) {
-            // Delete the oldest logs
-            List<Log> logsToDelete = allLogs.subList(150, allLogs.size());
-            logRepository.deleteAll(logsToDelete);
-        }
+    public Map<String, Object> getWriterStats() {
+        Map<String, Object> stats = writer.getStats();
+        stats.put("retention", retention);
+        return stats;
     }
 
     public List<Log> getAllLogs() {
@@ -39,4 +91,15 @@ public class LogService {
     public List<Log> getLogsByEntityType(String entityType) {
         return logRepository.findByEntityTypeOrderByTimestampDesc(entityType);
     }
-} 
\ No newline at end of file
+
+    private void writeBatch(List<Log> batch) {
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, batch, batch.size(), (ps, log) -> {
+            ps.setString(1, log.getOperationType());
+            ps.setString(2, log.getEntityType());
+            ps.setString(3, log.getPerformedBy());
+            ps.setTimestamp(4, Timestamp.valueOf(log.getTimestamp()));
+            ps.setString(5, log.getDetails());
+        });
+        jdbcTemplate.update(ENFORCE_RETENTION_SQL, retention);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.crud.service;
+
+import com.example.crud.model.UserStatus;
+import com.example.crud.security.services.UserDetailsImpl;
+import com.example.crud.security.services.UserDetailsServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Failed sign-in counters kept in memory and written behind to the users table.
+ *
+ * A username's counter is read from the database once, on its first failure since startup; after
+ * that failures and resets only update the in-memory counter (each under its own lock) and mark it
+ * dirty. Dirty counters are written every {@code app.auth.login-attempts.flush-interval-ms} with a
+ * single batched UPDATE. The pre-authentication expiry and lock checks use the cached principal.
+ */
+@Service
+public class LoginAttemptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptService.class);
+
+    private static final String SELECT_ATTEMPTS_SQL =
+            "SELECT failed_login_attempts FROM users WHERE username = ?";
+
+    private static final String UPDATE_ATTEMPTS_SQL =
+            "UPDATE users SET failed_login_attempts = ?, last_failed_login_time = ? WHERE username = ?";
+
+    public enum AccountState { OK, UNKNOWN, EXPIRED, LOCKED }
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.auth.login-attempts.max-tracked-users:100000}")
+    private long maxTrackedUsers;
+
+    private Cache<String, Attempts> counters;
+
+    // Counters changed since the last flush; holds them even if evicted from the cache meanwhile
+    private final Map<String, Attempts> dirty = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        counters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Expiry and lock state of an account before its password is checked, from the cached principal.
+     */
+    public AccountState checkAccount(String username) {
+        UserDetailsImpl principal;
+        try {
+            principal = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return AccountState.UNKNOWN;
+        }
+        if (!principal.isAccountNonExpired()) {
+            return AccountState.EXPIRED;
+        }
+        if (principal.getStatus() == UserStatus.BLOCKED) {
+            return AccountState.LOCKED;
+        }
+        return AccountState.OK;
+    }
+
+    /**
+     * Counts a failed sign-in.
+     * @return the number of consecutive failures, or 0 for an unknown username
+     */
+    public int loginFailed(String username) {
+        Attempts attempts = counters.get(username, this::loadAttempts);
+        if (attempts == null) {
+            return 0;
+        }
+        int failures = attempts.fail();
+        dirty.put(username, attempts);
+        return failures;
+    }
+
+    public void loginSucceeded(String username) {
+        Attempts attempts = counters.get(username, this::loadAttempts);
+        if (attempts != null && attempts.reset()) {
+            dirty.put(username, attempts);
+        }
+    }
+
+    /**
+     * Resets the counter after an admin unlocked the account. The reset is always queued, so the next
+     * flush writes 0 over any older count a flush in progress may still be writing.
+     */
+    public void accountUnlocked(String username) {
+        Attempts attempts = counters.get(username, this::loadAttempts);
+        if (attempts != null) {
+            attempts.reset();
+            dirty.put(username, attempts);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.login-attempts.flush-interval-ms:1000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (String username : dirty.keySet()) {
+            Attempts attempts = dirty.remove(username);
+            if (attempts != null) {
+                rows.add(attempts.snapshot(username));
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_ATTEMPTS_SQL, rows);
+        } catch (RuntimeException e) {
+            logger.error("Failed to persist {} login attempt counters", rows.size(), e);
+        }
+    }
+
+    private Attempts loadAttempts(String username) {
+        List<Integer> stored = jdbcTemplate.query(SELECT_ATTEMPTS_SQL, (rs, rowNum) -> rs.getInt(1), username);
+        return stored.isEmpty() ? null : new Attempts(stored.get(0));
+    }
+
+    private static final class Attempts {
+        private int failures;
+        private LocalDateTime lastFailure;
+
+        private Attempts(int failures) {
+            this.failures = failures;
+        }
+
+        private synchronized int fail() {
+            lastFailure = LocalDateTime.now();
+            return ++failures;
+        }
+
+        /**
+         * @return false if there was nothing to reset
+         */
+        private synchronized boolean reset() {
+            if (failures == 0 && lastFailure == null) {
+                return false;
+            }
+            failures = 0;
+            lastFailure = null;
+            return true;
+        }
+
+        private synchronized Object[] snapshot(String username) {
+            return new Object[] { failures, lastFailure == null ? null : Timestamp.valueOf(lastFailure), username };
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.crud.service;
 import com.example.crud.model.User;
 import com.example.crud.repository.UserRepository;
 import com.example.crud.security.jwt.JwtUtils;
+import com.example.crud.security.services.AuthenticationCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,6 +25,9 @@ public class PasswordResetService {
     @Autowired
     private MfaService mfaService;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
     public User verifyUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -49,6 +53,7 @@ public class PasswordResetService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        authenticationCache.invalidateUser(user.getUsername());
     }
 
     public boolean validateResetToken(String token) {
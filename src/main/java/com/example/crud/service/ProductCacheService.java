@@ -0,0 +1,116 @@
+package com.example.crud.service;
+
+import com.example.crud.config.CacheConfig;
+import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.repository.ProductRepository;
+import com.example.crud.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of product details keyed by product id.
+ *
+ * Entries are version-aware: a write only replaces a cached entry if its {@code Product.version}
+ * is at least as new, so a slow reader or a late commit can never put an older snapshot back.
+ * Write paths publish their result after the transaction commits.
+ */
+@Service
+public class ProductCacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheTuningService cacheTuningService;
+
+    // Incremented before every eviction; bulk loads that overlap one do not keep their rows cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Used when the products spec enables refreshAfterWrite; a product deleted meanwhile drops out
+    @PostConstruct
+    public void registerLoader() {
+        cacheTuningService.registerLoader(CacheConfig.PRODUCTS_CACHE,
+                key -> productRepository.findProductSummaryById((Long) key).orElse(null));
+    }
+
+    public ProductResponse getProduct(Long id) {
+        return (ProductResponse) CacheConfig.nativeCache(cacheManager, CacheConfig.PRODUCTS_CACHE)
+                .get(id, key -> productRepository.findProductSummaryById(id)
+                        .orElseThrow(() -> new RuntimeException("Product not found with id: " + id)));
+    }
+
+    /**
+     * Bulk read-through: products missing from the cache are loaded with one query. Ids of products
+     * that no longer exist are left out of the result.
+     *
+     * The loaded rows go through {@link #put(ProductResponse)} rather than Caffeine's bulk put, so they
+     * cannot replace a newer version. If a product was evicted while the query ran, the rows it read
+     * may predate the delete and are dropped from the cache again.
+     */
+    public Map<Long, ProductResponse> getProducts(Collection<Long> ids) {
+        Map<Long, ProductResponse> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        Cache<Object, Object> cache = CacheConfig.nativeCache(cacheManager, CacheConfig.PRODUCTS_CACHE);
+        for (Long id : ids) {
+            ProductResponse cached = (ProductResponse) cache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long evictionsBefore = evictions.get();
+        List<ProductResponse> loaded = productRepository.findProductSummariesByIds(missing, null, null, null, null);
+        for (ProductResponse product : loaded) {
+            found.put(product.getId(), product);
+            put(product);
+        }
+        if (evictions.get() != evictionsBefore) {
+            for (ProductResponse product : loaded) {
+                cache.invalidate(product.getId());
+            }
+        }
+        return found;
+    }
+
+    public void put(ProductResponse product) {
+        CacheConfig.nativeCache(cacheManager, CacheConfig.PRODUCTS_CACHE).asMap().merge(product.getId(), product,
+                (existing, incoming) -> isSameOrNewer((ProductResponse) incoming, (ProductResponse) existing) ? incoming : existing);
+    }
+
+    public void evict(Long id) {
+        evictions.incrementAndGet();
+        CacheConfig.nativeCache(cacheManager, CacheConfig.PRODUCTS_CACHE).invalidate(id);
+    }
+
+    public void putAfterCommit(ProductResponse product) {
+        TransactionCallbacks.afterCommit(() -> put(product));
+    }
+
+    public void evictAfterCommit(Long id) {
+        TransactionCallbacks.afterCommit(() -> evict(id));
+    }
+
+    private boolean isSameOrNewer(ProductResponse incoming, ProductResponse existing) {
+        long incomingVersion = incoming.getVersion() == null ? -1 : incoming.getVersion();
+        long existingVersion = existing.getVersion() == null ? -1 : existing.getVersion();
+        return incomingVersion >= existingVersion;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.crud.service;
+
+import com.example.crud.exception.InvalidRequestParameterException;
+import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the product catalog to a stream row by row, straight from a forward-only query.
+ *
+ * Only the rows of the current JDBC fetch are in memory, whatever the size of the catalog. The
+ * output is flushed after the first row and then every {@code app.products.export.flush-rows} rows,
+ * so clients start receiving data immediately. CSV output uses the column names accepted by the
+ * bulk import.
+ */
+@Service
+public class ProductExportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format fromParameter(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new InvalidRequestParameterException("Unsupported export format: " + value + " (use ndjson or csv)");
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "id,version,name,description,price,quantity,createdBy,updatedBy,createdWhen,updatedWhen\n";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.products.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${app.products.export.flush-rows:1000}")
+    private int flushRows;
+
+    /**
+     * @return number of exported products
+     */
+    public long export(Format format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(ProductResponse.class);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long exported;
+        try {
+            exported = readOnly.execute(tx -> {
+                long count = 0;
+                try (Stream<ProductResponse> products = productRepository.streamProductSummaries(fetchSize)) {
+                    Iterator<ProductResponse> iterator = products.iterator();
+                    while (iterator.hasNext()) {
+                        ProductResponse product = iterator.next();
+                        if (format == Format.CSV) {
+                            writeCsvRow(writer, product);
+                        } else {
+                            writer.write(jsonWriter.writeValueAsString(product));
+                            writer.write('\n');
+                        }
+                        count++;
+                        if (count == 1 || count % flushRows == 0) {
+                            writer.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // Typically the client went away; the read-only transaction has been rolled back
+            throw e.getCause();
+        }
+        writer.flush();
+        return exported == null ? 0 : exported;
+    }
+
+    private static void writeCsvRow(Writer writer, ProductResponse product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writer.write(product.getVersion() == null ? "" : String.valueOf(product.getVersion()));
+        writer.write(',');
+        writer.write(csvField(product.getName()));
+        writer.write(',');
+        writer.write(csvField(product.getDescription()));
+        writer.write(',');
+        writer.write(product.getPrice() == null ? "" : product.getPrice().toPlainString());
+        writer.write(',');
+        writer.write(product.getQuantity() == null ? "" : String.valueOf(product.getQuantity()));
+        writer.write(',');
+        writer.write(csvField(product.getCreatedBy()));
+        writer.write(',');
+        writer.write(csvField(product.getUpdatedBy()));
+        writer.write(',');
+        writer.write(product.getCreatedWhen() == null ? "" : product.getCreatedWhen().toString());
+        writer.write(',');
+        writer.write(product.getUpdatedWhen() == null ? "" : product.getUpdatedWhen().toString());
+        writer.write('\n');
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks and double embedded quotes
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.crud.service;
+
+import com.example.crud.model.Product;
+import com.example.crud.model.User;
+import com.example.crud.payload.request.ProductRequest;
+import com.example.crud.payload.response.ProductImportResponse;
+import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.util.CsvRecordReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from CSV or NDJSON bodies.
+ *
+ * The body is parsed one row at a time and never held in memory; valid rows are persisted in
+ * batches of {@code batchSize}, each in its own transaction, with the persistence context cleared
+ * after every batch. Invalid rows and failed batches are reported per input line without stopping
+ * the import. Lines (CSV records) are limited to {@code app.products.import.max-line-length}
+ * characters: an overlong NDJSON line is reported and skipped, an overlong CSV record ends the
+ * import like malformed quoting does.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LogService logService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductSearchCacheService productSearchCacheService;
+
+    @Value("${app.products.import.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Value("${app.products.import.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${app.products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${app.products.import.max-line-length:65536}")
+    private int maxLineLength;
+
+    /**
+     * @param batchSize rows per transaction, null for {@code app.products.import.batch-size}
+     */
+    public ProductImportResponse importProducts(InputStream body, Format format, Long userId, String username,
+                                                Integer batchSize) throws IOException {
+        int size = batchSize == null ? defaultBatchSize : Math.max(1, Math.min(batchSize, maxBatchSize));
+        TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.CSV ? new CsvRows(reader, maxLineLength) : new NdjsonRows(reader);
+
+        ProductImportResponse result = new ProductImportResponse();
+        List<Row> batch = new ArrayList<>(size);
+        Row row;
+        while ((row = rows.next()) != null) {
+            result.setProcessed(result.getProcessed() + 1);
+            String error = row.error != null ? row.error : validate(row.request);
+            if (error != null) {
+                reportError(result, row.line, error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == size) {
+                writeBatch(batchTransaction, batch, userId, username, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batchTransaction, batch, userId, username, result);
+        }
+
+        logService.addLog("CREATE", "PRODUCT", username,
+            "Bulk imported " + result.getImported() + " products (" + result.getFailed() + " rows rejected)");
+        return result;
+    }
+
+    private void writeBatch(TransactionTemplate batchTransaction, List<Row> batch, Long userId, String username,
+                            ProductImportResponse result) {
+        List<Product> persisted = new ArrayList<>(batch.size());
+        try {
+            batchTransaction.executeWithoutResult(tx -> {
+                User creator = entityManager.getReference(User.class, userId);
+                LocalDateTime now = LocalDateTime.now();
+                for (Row row : batch) {
+                    Product product = new Product();
+                    product.setName(row.request.getName());
+                    product.setDescription(row.request.getDescription());
+                    product.setPrice(row.request.getPrice());
+                    product.setQuantity(row.request.getQuantity());
+                    product.setCreatedBy(creator);
+                    product.setCreatedWhen(now);
+                    product.setUpdatedWhen(now);
+                    entityManager.persist(product);
+                    persisted.add(product);
+                }
+                entityManager.flush();
+            });
+            result.setImported(result.getImported() + batch.size());
+            // The batch transaction has committed, so the rows can be published to search right away
+            List<ProductResponse> imported = new ArrayList<>(persisted.size());
+            for (Product product : persisted) {
+                ProductResponse response = new ProductResponse(product.getId(), product.getVersion(), product.getName(),
+                        product.getDescription(), product.getPrice(), product.getQuantity(), username, null,
+                        product.getCreatedWhen(), product.getUpdatedWhen());
+                productSearchIndex.index(response);
+                imported.add(response);
+            }
+            productSearchCacheService.invalidate(imported);
+        } catch (RuntimeException e) {
+            logger.warn("Product import batch of {} rows starting on line {} failed", batch.size(), batch.get(0).line, e);
+            for (Row row : batch) {
+                reportError(result, row.line, "Batch failed: " + e.getMessage());
+            }
+        } finally {
+            // Keeps the persistence context (shared for the whole request) from growing with the import
+            entityManager.clear();
+        }
+    }
+
+    private String validate(ProductRequest request) {
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reportError(ProductImportResponse result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ProductImportResponse.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static final class Row {
+        private final long line;
+        private final ProductRequest request;
+        private final String error;
+
+        private Row(long line, ProductRequest request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+    private interface RowSource {
+        /**
+         * @return the next row, possibly carrying a parse error, or null at the end of the input
+         */
+        Row next() throws IOException;
+    }
+
+    /**
+     * CSV with a header row naming the columns: name, description (optional), price, quantity.
+     */
+    private static final class CsvRows implements RowSource {
+        private final CsvRecordReader reader;
+        private Map<String, Integer> columns;
+        private boolean finished;
+
+        private CsvRows(BufferedReader reader, int maxRecordLength) {
+            this.reader = new CsvRecordReader(reader, maxRecordLength);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            try {
+                if (columns == null) {
+                    List<String> header = reader.next();
+                    if (header == null) {
+                        return null;
+                    }
+                    columns = new HashMap<>();
+                    for (int i = 0; i < header.size(); i++) {
+                        columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                    }
+                    for (String required : List.of("name", "price", "quantity")) {
+                        if (!columns.containsKey(required)) {
+                            finished = true;
+                            return new Row(reader.getRecordLine(), null, "Header is missing the '" + required + "' column");
+                        }
+                    }
+                }
+                List<String> fields = reader.next();
+                if (fields == null) {
+                    return null;
+                }
+                return toRow(reader.getRecordLine(), fields);
+            } catch (IllegalArgumentException e) {
+                // Malformed quoting or an overlong record leaves no reliable way to find the next record
+                finished = true;
+                return new Row(reader.getRecordLine(), null, e.getMessage());
+            }
+        }
+
+        private Row toRow(long line, List<String> fields) {
+            ProductRequest request = new ProductRequest();
+            request.setName(field(fields, "name"));
+            request.setDescription(field(fields, "description"));
+            String price = field(fields, "price");
+            String quantity = field(fields, "quantity");
+            try {
+                request.setPrice(price == null ? null : new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                return new Row(line, null, "price is not a number: " + price);
+            }
+            try {
+                request.setQuantity(quantity == null ? null : Integer.valueOf(quantity));
+            } catch (NumberFormatException e) {
+                return new Row(line, null, "quantity is not an integer: " + quantity);
+            }
+            return new Row(line, request, null);
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    /**
+     * One JSON object per line with the fields of {@link ProductRequest}; blank lines are skipped. A line
+     * longer than {@code maxLineLength} is reported and skipped up to the next line break.
+     */
+    private final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private long line;
+
+        private NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private final StringBuilder buffer = new StringBuilder();
+        private boolean lineTooLong;
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = readLine();
+                line++;
+            } while (text != null && !lineTooLong && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+            if (lineTooLong) {
+                return new Row(line, null, "Line is longer than " + maxLineLength + " characters");
+            }
+            try {
+                ProductRequest request = objectMapper.readValue(text, ProductRequest.class);
+                return request != null ? new Row(line, request, null) : new Row(line, null, "Expected a JSON object");
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        /**
+         * Like {@link BufferedReader#readLine()}, but buffers at most {@code maxLineLength} characters.
+         * A longer line is skipped to its end and returned empty with {@code lineTooLong} set.
+         * @return the line, or null at the end of the input
+         */
+        private String readLine() throws IOException {
+            buffer.setLength(0);
+            lineTooLong = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n') {
+                if (!lineTooLong) {
+                    if (buffer.length() == maxLineLength) {
+                        lineTooLong = true;
+                        buffer.setLength(0);
+                    } else {
+                        buffer.append((char) c);
+                    }
+                }
+                c = reader.read();
+            }
+            int length = buffer.length();
+            if (length > 0 && buffer.charAt(length - 1) == '\r') {
+                buffer.setLength(length - 1);
+            }
+            return buffer.toString();
+        }
+    }
+}
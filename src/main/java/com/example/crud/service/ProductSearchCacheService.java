@@ -0,0 +1,129 @@
+package com.example.crud.service;
+
+import com.example.crud.config.CacheConfig;
+import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cache of product search results, keyed by the normalized search criteria and holding the matching
+ * product ids in result order (rows are then read through the product cache).
+ *
+ * Product writes invalidate selectively: after the transaction commits, only the cached searches
+ * whose criteria match the row before or after the write are dropped. A search that was computed
+ * while a write committed is not stored, so an outdated result can never replace an invalidated one.
+ */
+@Service
+public class ProductSearchCacheService {
+
+    /**
+     * Normalized search criteria; a null field is not filtered on.
+     *
+     * @param text normalized text query (see {@link ProductSearchIndex#normalizeQuery(String)})
+     */
+    public record SearchKey(String text, BigDecimal minPrice, BigDecimal maxPrice, Integer minQuantity,
+                            Integer maxQuantity, String createdBy) {
+
+        public static SearchKey of(String namePattern, BigDecimal minPrice, BigDecimal maxPrice,
+                                   Integer minQuantity, Integer maxQuantity, String createdByUsername) {
+            return new SearchKey(
+                    namePattern == null || namePattern.isBlank() ? null : ProductSearchIndex.normalizeQuery(namePattern),
+                    minPrice == null ? null : minPrice.stripTrailingZeros(),
+                    maxPrice == null ? null : maxPrice.stripTrailingZeros(),
+                    minQuantity,
+                    maxQuantity,
+                    createdByUsername == null || createdByUsername.isBlank() ? null : createdByUsername);
+        }
+
+        /**
+         * @return whether {@code product} would be part of the results of this search
+         */
+        public boolean matches(ProductResponse product) {
+            if (createdBy != null && !createdBy.equals(product.getCreatedBy())) {
+                return false;
+            }
+            if (minPrice != null && (product.getPrice() == null || product.getPrice().compareTo(minPrice) < 0)) {
+                return false;
+            }
+            if (maxPrice != null && (product.getPrice() == null || product.getPrice().compareTo(maxPrice) > 0)) {
+                return false;
+            }
+            if (minQuantity != null && (product.getQuantity() == null || product.getQuantity() < minQuantity)) {
+                return false;
+            }
+            if (maxQuantity != null && (product.getQuantity() == null || product.getQuantity() > maxQuantity)) {
+                return false;
+            }
+            return text == null || ProductSearchIndex.matches(text, product.getName(), product.getDescription());
+        }
+    }
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Incremented by every invalidation; results computed across an increment are not cached
+    private long generation;
+    private final Object lock = new Object();
+
+    @SuppressWarnings("unchecked")
+    public List<Long> getIds(SearchKey key) {
+        return (List<Long>) CacheConfig.nativeCache(cacheManager, CacheConfig.PRODUCT_SEARCHES_CACHE).getIfPresent(key);
+    }
+
+    /**
+     * Captured before computing a result that is passed to {@link #put(SearchKey, List, long)}.
+     */
+    public long currentGeneration() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    public void put(SearchKey key, List<Long> ids, long computedAtGeneration) {
+        synchronized (lock) {
+            if (generation == computedAtGeneration) {
+                CacheConfig.nativeCache(cacheManager, CacheConfig.PRODUCT_SEARCHES_CACHE).put(key, List.copyOf(ids));
+            }
+        }
+    }
+
+    /**
+     * Drops, once the transaction commits, the cached searches matched by any of the given rows.
+     * Pass the row as it was before the write and as it is after it (null for creates and deletes).
+     */
+    public void invalidateAfterCommit(ProductResponse before, ProductResponse after) {
+        List<ProductResponse> rows = new ArrayList<>(2);
+        if (before != null) {
+            rows.add(before);
+        }
+        if (after != null) {
+            rows.add(after);
+        }
+        TransactionCallbacks.afterCommit(() -> invalidate(rows));
+    }
+
+    public void invalidate(Collection<ProductResponse> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            generation++;
+        }
+        CacheConfig.nativeCache(cacheManager, CacheConfig.PRODUCT_SEARCHES_CACHE).asMap().keySet().removeIf(key -> {
+            SearchKey searchKey = (SearchKey) key;
+            for (ProductResponse row : rows) {
+                if (searchKey.matches(row)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.crud.service;
+
+import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.repository.ProductRepository;
+import com.example.crud.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product names and descriptions.
+ *
+ * Text is split into lower-case letter/digit tokens and every prefix of a token, up to
+ * {@code app.products.search.max-prefix-length} characters, is posted; a query matches the products
+ * in which each of its terms starts a word of the name or the description. Matches are ranked with
+ * name hits above description hits and whole-word hits above prefix hits. Hits also carry the
+ * sortable product columns, so callers can page them in another order without a database query.
+ *
+ * Write paths publish to the index after their transaction commits; an update only replaces an entry
+ * if its {@code Product.version} is at least as new. The index is rebuilt from the database when the
+ * application starts and reports {@link #isReady()} false until then, so callers can fall back to
+ * the database.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WORD_SCORE = 10;
+    private static final int NAME_PREFIX_SCORE = 6;
+    private static final int DESCRIPTION_WORD_SCORE = 3;
+    private static final int DESCRIPTION_PREFIX_SCORE = 2;
+    private static final int NAME_PHRASE_SCORE = 5;
+    private static final int NAME_STARTS_WITH_PHRASE_SCORE = 3;
+
+    public static final Comparator<Hit> RELEVANCE_ORDER = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(Hit::nameLower)
+            .thenComparingLong(Hit::id);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.products.search.max-prefix-length:20}")
+    private int maxPrefixLength;
+
+    @Value("${app.products.search.rebuild-fetch-size:500}")
+    private int rebuildFetchSize;
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    // Writers are serialized; readers work on the concurrent maps and re-check every hit against its document
+    private final Object writeLock = new Object();
+
+    // Ids removed while a rebuild streams the table, guarded by writeLock; null when no rebuild runs.
+    // The stream may still return such a row, so these are removed again once it is done.
+    private Set<Long> removedDuringRebuild;
+
+    private volatile boolean ready;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile long lastRebuildMillis = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to build the product search index, searches use the database", e);
+        }
+    }
+
+    /**
+     * Reloads the index from the database. Searches fall back to the database while it runs; writes
+     * committed meanwhile are merged by version, and products deleted meanwhile are removed after the
+     * table has been read. Only one rebuild runs at a time.
+     *
+     * @return false if a rebuild is already in progress
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            synchronized (writeLock) {
+                ready = false;
+                documents.clear();
+                postings.clear();
+                removedDuringRebuild = new HashSet<>();
+            }
+            try {
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                readOnly.executeWithoutResult(tx -> {
+                    try (Stream<ProductResponse> products = productRepository.streamProductSummaries(rebuildFetchSize)) {
+                        products.forEach(this::index);
+                    }
+                });
+            } finally {
+                synchronized (writeLock) {
+                    Set<Long> removed = removedDuringRebuild;
+                    removedDuringRebuild = null;
+                    for (Long id : removed) {
+                        removeDocument(id);
+                    }
+                }
+            }
+            ready = true;
+            lastRebuildMillis = System.currentTimeMillis() - started;
+            logger.info("Indexed {} products for search in {} ms", documents.size(), lastRebuildMillis);
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return duration of the last completed rebuild, or -1 if none has completed yet
+     */
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    /**
+     * @return the products matching every term of {@code query}, best match first (ties by name, then
+     *         id); empty if the query contains no letters or digits
+     */
+    public List<Hit> search(String query, String createdByUsername) {
+        List<String> terms = new ArrayList<>(new HashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Drive the scan from the rarest term, the others are checked on the document
+        Set<Long> candidates = null;
+        for (String term : terms) {
+            Set<Long> posting = postings.getOrDefault(postingKey(term), Collections.emptySet());
+            if (candidates == null || posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+
+        String phrase = normalizeQuery(query);
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            Document document = documents.get(id);
+            if (document == null) {
+                continue;
+            }
+            if (createdByUsername != null && !createdByUsername.isBlank()
+                    && !createdByUsername.equals(document.createdBy)) {
+                continue;
+            }
+            int score = score(document, terms, phrase);
+            if (score > 0) {
+                hits.add(new Hit(id, score, document.name, document.nameLower,
+                        document.price, document.quantity, document.updatedWhen));
+            }
+        }
+        hits.sort(RELEVANCE_ORDER);
+        return hits;
+    }
+
+    /**
+     * @return true if {@code query} contains at least one searchable term
+     */
+    public boolean isSearchable(String query) {
+        return query != null && !tokenize(query).isEmpty();
+    }
+
+    public void index(ProductResponse product) {
+        Document document = toDocument(product);
+        synchronized (writeLock) {
+            Document existing = documents.get(product.getId());
+            if (existing != null && document.version < existing.version) {
+                return;
+            }
+            for (String gram : document.grams) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(product.getId());
+            }
+            documents.put(product.getId(), document);
+            if (existing != null) {
+                for (String gram : existing.grams) {
+                    if (!document.grams.contains(gram)) {
+                        removePosting(gram, product.getId());
+                    }
+                }
+            }
+        }
+    }
+
+    public void remove(Long id) {
+        synchronized (writeLock) {
+            if (removedDuringRebuild != null) {
+                removedDuringRebuild.add(id);
+            }
+            removeDocument(id);
+        }
+    }
+
+    public void indexAfterCommit(ProductResponse product) {
+        TransactionCallbacks.afterCommit(() -> index(product));
+    }
+
+    public void removeAfterCommit(Long id) {
+        TransactionCallbacks.afterCommit(() -> remove(id));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("products", documents.size());
+        stats.put("terms", postings.size());
+        stats.put("maxPrefixLength", maxPrefixLength);
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    // Callers hold writeLock
+    private void removeDocument(Long id) {
+        Document existing = documents.remove(id);
+        if (existing != null) {
+            for (String gram : existing.grams) {
+                removePosting(gram, id);
+            }
+        }
+    }
+
+    private void removePosting(String gram, Long id) {
+        Set<Long> posting = postings.get(gram);
+        if (posting != null) {
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private int score(Document document, List<String> terms, String phrase) {
+        int score = 0;
+        for (String term : terms) {
+            int termScore = Math.max(
+                    match(document.nameTokens, term, NAME_WORD_SCORE, NAME_PREFIX_SCORE),
+                    match(document.descriptionTokens, term, DESCRIPTION_WORD_SCORE, DESCRIPTION_PREFIX_SCORE));
+            if (termScore == 0) {
+                return 0;
+            }
+            score += termScore;
+        }
+        if (document.nameLower.startsWith(phrase)) {
+            score += NAME_PHRASE_SCORE + NAME_STARTS_WITH_PHRASE_SCORE;
+        } else if (document.nameLower.contains(phrase)) {
+            score += NAME_PHRASE_SCORE;
+        }
+        return score;
+    }
+
+    private static int match(Set<String> tokens, String term, int wordScore, int prefixScore) {
+        if (tokens.contains(term)) {
+            return wordScore;
+        }
+        for (String token : tokens) {
+            if (token.startsWith(term)) {
+                return prefixScore;
+            }
+        }
+        return 0;
+    }
+
+    private Document toDocument(ProductResponse product) {
+        Set<String> nameTokens = new HashSet<>(tokenize(product.getName()));
+        Set<String> descriptionTokens = new HashSet<>(tokenize(product.getDescription()));
+        Set<String> grams = new HashSet<>();
+        addPrefixes(nameTokens, grams);
+        addPrefixes(descriptionTokens, grams);
+        String name = product.getName() == null ? "" : product.getName();
+        return new Document(
+                product.getVersion() == null ? -1 : product.getVersion(),
+                name,
+                name.toLowerCase(Locale.ROOT),
+                nameTokens,
+                descriptionTokens,
+                product.getCreatedBy(),
+                product.getPrice(),
+                product.getQuantity(),
+                product.getUpdatedWhen(),
+                grams);
+    }
+
+    private void addPrefixes(Set<String> tokens, Set<String> grams) {
+        for (String token : tokens) {
+            int longest = Math.min(token.length(), maxPrefixLength);
+            for (int length = 1; length <= longest; length++) {
+                grams.add(token.substring(0, length));
+            }
+        }
+    }
+
+    // Terms longer than the indexed prefixes are looked up by their longest prefix and verified on the document
+    private String postingKey(String term) {
+        return term.length() > maxPrefixLength ? term.substring(0, maxPrefixLength) : term;
+    }
+
+    /**
+     * Lower-cased, trimmed query with runs of whitespace collapsed; queries with the same normal form
+     * return the same results.
+     */
+    public static String normalizeQuery(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether a product with this name and description matches {@code query}, by the same rule as
+     * {@link #search(String, String)}.
+     */
+    public static boolean matches(String query, String name, String description) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return false;
+        }
+        Set<String> tokens = new HashSet<>(tokenize(name));
+        tokens.addAll(tokenize(description));
+        for (String term : terms) {
+            boolean found = false;
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private record Document(long version, String name, String nameLower, Set<String> nameTokens,
+                            Set<String> descriptionTokens, String createdBy, BigDecimal price, Integer quantity,
+                            LocalDateTime updatedWhen, Set<String> grams) {
+    }
+
+    /**
+     * A matching product with its relevance score and the sortable columns as of its last indexing.
+     */
+    public record Hit(long id, int score, String name, String nameLower, BigDecimal price, Integer quantity,
+                      LocalDateTime updatedWhen) {
+    }
+}
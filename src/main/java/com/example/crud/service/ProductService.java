@@ -3,10 +3,17 @@ package com.example.crud.service;
 import com.example.crud.model.Product;
 import com.example.crud.model.User;
 import com.example.crud.payload.request.ProductRequest;
+import com.example.crud.payload.response.ProductPageResponse;
 import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.payload.response.ProductSearchPageResponse;
 import com.example.crud.repository.ProductRepository;
+import com.example.crud.repository.ProductSearchCriteria;
+import com.example.crud.repository.ProductSearchCriteria.SortKey;
 import com.example.crud.repository.UserRepository;
+import com.example.crud.exception.InvalidPaginationException;
 import com.example.crud.exception.OptimisticLockingException;
+import com.example.crud.exception.SearchIndexUnavailableException;
+import com.example.crud.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -15,8 +22,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class ProductService {
@@ -29,29 +41,56 @@ public class ProductService {
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductSearchCacheService productSearchCacheService;
+
     private static final long LOCK_EXPIRY_MINUTES = 5;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    // Bounds the IN list of the range-filter query for broad text matches
+    private static final int SEARCH_ID_CHUNK_SIZE = 1000;
 
     public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
+        return productRepository.findAllProductSummaries();
+    }
+
+    /**
+     * Keyset-paginated product listing ordered by id.
+     * Only one page (plus one look-ahead row) is ever loaded, regardless of catalog size.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse getProductsPage(String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterId = KeysetCursor.decodeId(after);
+
+        List<ProductResponse> rows = productRepository.findProductSummariesAfter(afterId, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? KeysetCursor.encode(String.valueOf(items.get(items.size() - 1).getId())) : null;
+
+        return new ProductPageResponse(items, nextCursor, pageSize, hasMore);
     }
 
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        logService.addLog("READ", "PRODUCT", product.getCreatedBy().getUsername(), 
+        ProductResponse product = productCacheService.getProduct(id);
+        logService.addLog("READ", "PRODUCT", product.getCreatedBy(), 
             "Read product: " + product.getName() + " (ID: " + product.getId() + ")");
-        return mapToProductResponse(product);
+        return product;
     }
 
     public List<ProductResponse> getProductsByUser(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        if (!userRepository.existsByUsername(username)) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
 
-        return productRepository.findByCreatedBy(user).stream()
-                .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
+        return productRepository.findProductSummariesByCreator(username);
     }
 
     @Transactional
@@ -73,7 +112,9 @@ public class ProductService {
         Product savedProduct = productRepository.save(product);
         logService.addLog("CREATE", "PRODUCT", username, 
             "Created new product: " + savedProduct.getName() + " (ID: " + savedProduct.getId() + ")");
-        return mapToProductResponse(savedProduct);
+        ProductResponse response = cacheAfterCommit(savedProduct);
+        productSearchCacheService.invalidateAfterCommit(null, response);
+        return response;
     }
 
     @Transactional
@@ -83,6 +124,7 @@ public class ProductService {
                     .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
 
             String oldName = product.getName();
+            ProductResponse before = mapToProductResponse(product);
             product.setName(productRequest.getName());
             product.setDescription(productRequest.getDescription());
             product.setPrice(productRequest.getPrice());
@@ -106,7 +148,9 @@ public class ProductService {
 
             logService.addLog("UPDATE", "PRODUCT", product.getCreatedBy().getUsername(), 
                 "Updated product: " + oldName + " to " + updatedProduct.getName() + " (ID: " + updatedProduct.getId() + ")");
-            return mapToProductResponse(updatedProduct);
+            ProductResponse response = cacheAfterCommit(updatedProduct);
+            productSearchCacheService.invalidateAfterCommit(before, response);
+            return response;
         } catch (ObjectOptimisticLockingFailureException ex) {
             throw new OptimisticLockingException(
                 "The product has been modified by another user. Please refresh and try again.",
@@ -121,12 +165,22 @@ public class ProductService {
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         String productName = product.getName();
         String username = product.getCreatedBy().getUsername();
+        ProductResponse before = mapToProductResponse(product);
         
         productRepository.deleteById(id);
+        productCacheService.evictAfterCommit(id);
+        productSearchIndex.removeAfterCommit(id);
+        productSearchCacheService.invalidateAfterCommit(before, null);
         logService.addLog("DELETE", "PRODUCT", username, 
             "Deleted product: " + productName + " (ID: " + id + ")");
     }
 
+    /**
+     * Text matching on name and description is answered by the {@link ProductSearchIndex}, best match
+     * first; only the price and quantity bounds are checked in the database, for the matched ids.
+     * Until the index is built, and for patterns without letters or digits, the database search runs.
+     * Result ids are cached per normalized criteria by the {@link ProductSearchCacheService}.
+     */
     public List<ProductResponse> searchProducts(
             String namePattern,
             BigDecimal minPrice,
@@ -135,15 +189,268 @@ public class ProductService {
             Integer maxQuantity,
             String createdByUsername) {
         
-        List<Product> products = productRepository.findProductsByCustomCriteria(
-                namePattern,
-                minPrice,
-                maxPrice,
-                minQuantity,
-                maxQuantity,
-                createdByUsername
-        );
+        boolean useIndex = productSearchIndex.isReady() && productSearchIndex.isSearchable(namePattern);
+        boolean textFilter = namePattern != null && !namePattern.trim().isEmpty();
+        // Substring searches only run while the index is being built and are not cached
+        ProductSearchCacheService.SearchKey cacheKey = useIndex || !textFilter
+                ? ProductSearchCacheService.SearchKey.of(namePattern, minPrice, maxPrice, minQuantity, maxQuantity, createdByUsername)
+                : null;
+        List<Long> cachedIds = cacheKey != null ? productSearchCacheService.getIds(cacheKey) : null;
+
+        List<ProductResponse> products;
+        if (cachedIds != null) {
+            products = loadRanked(cachedIds, null, null, null, null);
+        } else {
+            long generation = productSearchCacheService.currentGeneration();
+            if (useIndex) {
+                List<Long> rankedIds = new ArrayList<>();
+                for (ProductSearchIndex.Hit hit : productSearchIndex.search(namePattern, createdByUsername)) {
+                    rankedIds.add(hit.id());
+                }
+                products = loadRanked(rankedIds, minPrice, maxPrice, minQuantity, maxQuantity);
+            } else {
+                products = productRepository.searchProductSummaries(
+                        namePattern,
+                        minPrice,
+                        maxPrice,
+                        minQuantity,
+                        maxQuantity,
+                        createdByUsername
+                );
+            }
+            if (cacheKey != null) {
+                List<Long> ids = new ArrayList<>(products.size());
+                for (ProductResponse product : products) {
+                    ids.add(product.getId());
+                }
+                productSearchCacheService.put(cacheKey, ids, generation);
+            }
+        }
+
+        logSearch(namePattern, minPrice, maxPrice, minQuantity, maxQuantity, createdByUsername);
+
+        return products;
+    }
+
+    /**
+     * One page of a product search, in keyset order of the requested sort key.
+     *
+     * Text searches answered by the {@link ProductSearchIndex} order and page the index hits in memory
+     * and only load the rows of the page (checking price and quantity bounds in the database);
+     * otherwise the page is read with a keyset query. The cursor records the sort it was issued for,
+     * which later pages inherit. The total is only counted when {@code includeTotal} is set.
+     *
+     * @param sort relevance, name, price, quantity or updatedWhen; defaults to relevance for text
+     *             searches and to name otherwise
+     * @param direction asc (default) or desc; relevance is always best match first
+     */
+    @Transactional(readOnly = true)
+    public ProductSearchPageResponse searchProductsPage(ProductSearchCriteria criteria, String sort, String direction,
+                                                        String after, Integer limit, boolean includeTotal) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean textSearch = productSearchIndex.isSearchable(criteria.getNamePattern());
+        boolean useIndex = textSearch && productSearchIndex.isReady();
+
+        SortKey sortKey = sort == null || sort.isBlank() ? null : SortKey.fromParameter(sort);
+        Boolean descending = direction == null || direction.isBlank() ? null : parseDirection(direction);
+        String[] cursor = null;
+        if (after != null && !after.isBlank()) {
+            cursor = KeysetCursor.decode(after, 5);
+            SortKey cursorSort = SortKey.fromParameter(cursor[0]);
+            boolean cursorDescending = parseDirection(cursor[1]);
+            if ((sortKey != null && sortKey != cursorSort)
+                    || (descending != null && cursorSort != SortKey.RELEVANCE && descending != cursorDescending)) {
+                throw new InvalidPaginationException("The pagination cursor was issued for a different sort");
+            }
+            sortKey = cursorSort;
+            descending = cursorDescending;
+        }
+        if (sortKey == null) {
+            sortKey = useIndex ? SortKey.RELEVANCE : SortKey.NAME;
+        }
+        if (sortKey == SortKey.RELEVANCE) {
+            if (!textSearch) {
+                throw new InvalidPaginationException("Sorting by relevance requires a namePattern");
+            }
+            if (!useIndex) {
+                // Only while the index is being rebuilt; a relevance cursor cannot continue in another order
+                long lastRebuildMillis = productSearchIndex.getLastRebuildMillis();
+                throw new SearchIndexUnavailableException("The search index is being rebuilt, please search again",
+                        Math.max(1, (lastRebuildMillis + 999) / 1000));
+            }
+            descending = true;
+        }
+        criteria.setSort(sortKey);
+        criteria.setDescending(Boolean.TRUE.equals(descending));
+
+        ProductSearchPageResponse page = useIndex
+                ? searchIndexPage(criteria, cursor, pageSize, includeTotal)
+                : searchDatabasePage(criteria, cursor, pageSize, includeTotal);
+
+        logSearch(criteria.getNamePattern(), criteria.getMinPrice(), criteria.getMaxPrice(),
+                criteria.getMinQuantity(), criteria.getMaxQuantity(), criteria.getCreatedByUsername());
+        return page;
+    }
+
+    private ProductSearchPageResponse searchIndexPage(ProductSearchCriteria criteria, String[] cursor, int pageSize,
+                                                      boolean includeTotal) {
+        List<ProductSearchIndex.Hit> hits = productSearchIndex.search(criteria.getNamePattern(), criteria.getCreatedByUsername());
+        Comparator<ProductSearchIndex.Hit> order = hitOrder(criteria.getSort(), criteria.isDescending());
+        if (criteria.getSort() != SortKey.RELEVANCE) {
+            hits.sort(order);
+        }
 
+        int position = 0;
+        if (cursor != null) {
+            int found = Collections.binarySearch(hits, cursorHit(criteria.getSort(), cursor), order);
+            position = found >= 0 ? found + 1 : -found - 1;
+        }
+
+        // Rows are loaded a chunk at a time; rows failing the range filters or deleted meanwhile are skipped
+        int chunkSize = Math.min(Math.max(pageSize + 1, 100), SEARCH_ID_CHUNK_SIZE);
+        List<ProductResponse> items = new ArrayList<>(pageSize);
+        ProductSearchIndex.Hit last = null;
+        boolean hasMore = false;
+        while (position < hits.size() && !hasMore) {
+            List<ProductSearchIndex.Hit> chunk = hits.subList(position, Math.min(position + chunkSize, hits.size()));
+            List<Long> ids = new ArrayList<>(chunk.size());
+            for (ProductSearchIndex.Hit hit : chunk) {
+                ids.add(hit.id());
+            }
+            Map<Long, ProductResponse> byId = loadByIds(ids, criteria.getMinPrice(), criteria.getMaxPrice(),
+                    criteria.getMinQuantity(), criteria.getMaxQuantity());
+            for (ProductSearchIndex.Hit hit : chunk) {
+                ProductResponse product = byId.get(hit.id());
+                if (product == null) {
+                    continue;
+                }
+                if (items.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                items.add(product);
+                last = hit;
+            }
+            position += chunk.size();
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Object value = criteria.getSort() == SortKey.RELEVANCE ? last.score() : hitValue(criteria.getSort(), last);
+            nextCursor = encodeCursor(criteria, value, last.nameLower(), last.id());
+        }
+        Long total = null;
+        if (includeTotal) {
+            total = criteria.hasRangeFilters() ? countHits(hits, criteria) : (long) hits.size();
+        }
+        return new ProductSearchPageResponse(items, nextCursor, pageSize, hasMore,
+                criteria.getSort().getParameter(), criteria.isDescending() ? "desc" : "asc", total);
+    }
+
+    private ProductSearchPageResponse searchDatabasePage(ProductSearchCriteria criteria, String[] cursor, int pageSize,
+                                                         boolean includeTotal) {
+        if (cursor != null) {
+            criteria.setAfterValue(criteria.getSort().parseValue(cursor[2]));
+            criteria.setAfterId(parseCursorId(cursor[4]));
+        }
+        List<ProductResponse> rows = productRepository.findProductSummaryPage(criteria, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ProductResponse last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(criteria, criteria.getSort().valueOf(last), "", last.getId());
+        }
+        Long total = includeTotal ? productRepository.countProducts(criteria) : null;
+        return new ProductSearchPageResponse(items, nextCursor, pageSize, hasMore,
+                criteria.getSort().getParameter(), criteria.isDescending() ? "desc" : "asc", total);
+    }
+
+    private long countHits(List<ProductSearchIndex.Hit> hits, ProductSearchCriteria criteria) {
+        long total = 0;
+        for (int from = 0; from < hits.size(); from += SEARCH_ID_CHUNK_SIZE) {
+            List<Long> ids = new ArrayList<>();
+            for (ProductSearchIndex.Hit hit : hits.subList(from, Math.min(from + SEARCH_ID_CHUNK_SIZE, hits.size()))) {
+                ids.add(hit.id());
+            }
+            total += productRepository.countProductsByIds(ids, criteria.getMinPrice(), criteria.getMaxPrice(),
+                    criteria.getMinQuantity(), criteria.getMaxQuantity());
+        }
+        return total;
+    }
+
+    // Same order as the keyset query: sort value with nulls lowest, then id, both in the requested direction
+    private static Comparator<ProductSearchIndex.Hit> hitOrder(SortKey sort, boolean descending) {
+        Comparator<ProductSearchIndex.Hit> order = switch (sort) {
+            case RELEVANCE -> null;
+            case NAME -> Comparator.comparing(ProductSearchIndex.Hit::name, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case PRICE -> Comparator.comparing(ProductSearchIndex.Hit::price, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case QUANTITY -> Comparator.comparing(ProductSearchIndex.Hit::quantity, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case UPDATED_WHEN -> Comparator.comparing(ProductSearchIndex.Hit::updatedWhen, Comparator.nullsFirst(Comparator.naturalOrder()));
+        };
+        if (order == null) {
+            return ProductSearchIndex.RELEVANCE_ORDER;
+        }
+        order = order.thenComparingLong(ProductSearchIndex.Hit::id);
+        return descending ? order.reversed() : order;
+    }
+
+    private static Object hitValue(SortKey sort, ProductSearchIndex.Hit hit) {
+        return switch (sort) {
+            case RELEVANCE -> hit.score();
+            case NAME -> hit.name();
+            case PRICE -> hit.price();
+            case QUANTITY -> hit.quantity();
+            case UPDATED_WHEN -> hit.updatedWhen();
+        };
+    }
+
+    // A probe carrying only the keys the order compares, positioned exactly at the cursor
+    private static ProductSearchIndex.Hit cursorHit(SortKey sort, String[] cursor) {
+        Object value = sort.parseValue(cursor[2]);
+        long id = parseCursorId(cursor[4]);
+        if (sort == SortKey.RELEVANCE) {
+            if (value == null) {
+                throw new InvalidPaginationException("Invalid pagination cursor");
+            }
+            return new ProductSearchIndex.Hit(id, (Integer) value, null, cursor[3], null, null, null);
+        }
+        return new ProductSearchIndex.Hit(id, 0,
+                sort == SortKey.NAME ? (String) value : null,
+                null,
+                sort == SortKey.PRICE ? (BigDecimal) value : null,
+                sort == SortKey.QUANTITY ? (Integer) value : null,
+                sort == SortKey.UPDATED_WHEN ? (LocalDateTime) value : null);
+    }
+
+    private static String encodeCursor(ProductSearchCriteria criteria, Object value, String nameLower, long id) {
+        String encodedValue = value == null ? ""
+                : value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        return KeysetCursor.encode(criteria.getSort().getParameter(), criteria.isDescending() ? "desc" : "asc",
+                encodedValue, nameLower, String.valueOf(id));
+    }
+
+    private static long parseCursorId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidPaginationException("Invalid pagination cursor");
+        }
+    }
+
+    private static boolean parseDirection(String direction) {
+        if ("asc".equalsIgnoreCase(direction)) {
+            return false;
+        }
+        if ("desc".equalsIgnoreCase(direction)) {
+            return true;
+        }
+        throw new InvalidPaginationException("Unsupported direction: " + direction + " (use asc or desc)");
+    }
+
+    private void logSearch(String namePattern, BigDecimal minPrice, BigDecimal maxPrice,
+                           Integer minQuantity, Integer maxQuantity, String createdByUsername) {
         logService.addLog("READ", "PRODUCT", 
             SecurityContextHolder.getContext().getAuthentication().getName(),
             "Searched products with criteria: " + 
@@ -151,10 +458,6 @@ public class ProductService {
             "price=" + minPrice + "-" + maxPrice + ", " +
             "quantity=" + minQuantity + "-" + maxQuantity + ", " +
             "creator=" + createdByUsername);
-
-        return products.stream()
-                .map(this::mapToProductResponse)
-                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -175,7 +478,7 @@ public class ProductService {
         product.setEditingBy(user);
         product.setEditingSince(now);
         productRepository.save(product);
-        return mapToProductResponse(product);
+        return cacheAfterCommit(product);
     }
 
     @Transactional
@@ -187,10 +490,62 @@ public class ProductService {
             product.setEditingBy(null);
             product.setEditingSince(null);
             productRepository.save(product);
+            return cacheAfterCommit(product);
         }
         return mapToProductResponse(product);
     }
 
+    private List<ProductResponse> loadRanked(
+            List<Long> rankedIds,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Integer minQuantity,
+            Integer maxQuantity) {
+
+        Map<Long, ProductResponse> byId = loadByIds(rankedIds, minPrice, maxPrice, minQuantity, maxQuantity);
+        List<ProductResponse> products = new ArrayList<>(byId.size());
+        for (Long id : rankedIds) {
+            ProductResponse product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    private Map<Long, ProductResponse> loadByIds(
+            List<Long> ids,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Integer minQuantity,
+            Integer maxQuantity) {
+
+        if (minPrice == null && maxPrice == null && minQuantity == null && maxQuantity == null) {
+            return productCacheService.getProducts(ids);
+        }
+        Map<Long, ProductResponse> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += SEARCH_ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + SEARCH_ID_CHUNK_SIZE, ids.size()));
+            for (ProductResponse product : productRepository.findProductSummariesByIds(
+                    chunk, minPrice, maxPrice, minQuantity, maxQuantity)) {
+                byId.put(product.getId(), product);
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * Flushes pending changes so the response carries the incremented version,
+     * then publishes it to the product cache and the search index once the transaction commits.
+     */
+    private ProductResponse cacheAfterCommit(Product product) {
+        productRepository.flush();
+        ProductResponse response = mapToProductResponse(product);
+        productCacheService.putAfterCommit(response);
+        productSearchIndex.indexAfterCommit(response);
+        return response;
+    }
+
     private ProductResponse mapToProductResponse(Product product) {
         ProductResponse response = new ProductResponse();
         response.setId(product.getId());
@@ -0,0 +1,199 @@
+package com.example.crud.service;
+
+import com.example.crud.exception.InvalidProfileImageException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store for profile images.
+ *
+ * An image is stored once under the hex SHA-256 of its bytes ({@code <dir>/ab/abcd...}), so the
+ * hash doubles as a strong ETag and identical uploads share a file. Uploads are streamed to a temp
+ * file while hashing and then moved into place; files are never modified once written.
+ *
+ * Only PNG, JPEG, GIF and WebP are accepted. The format is taken from the leading bytes of the
+ * content, never from the media type the client declares.
+ */
+@Service
+public class ProfileImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileImageStore.class);
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    // Enough for the longest signature below (RIFF....WEBP)
+    private static final int SIGNATURE_LENGTH = 12;
+
+    /**
+     * Media types an image can be stored and served with.
+     */
+    public static final Set<String> ACCEPTED_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+
+    @Value("${app.profile-images.dir:./data/profile-images}")
+    private String directory;
+
+    @Value("${app.profile-images.max-bytes:5242880}")
+    private long maxBytes;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(directory).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    /**
+     * Streams an image into the store.
+     * @return hash of the content, which is also its key, and the media type detected from its bytes
+     * @throws InvalidProfileImageException if the image is empty, larger than {@code app.profile-images.max-bytes}
+     *         or not a PNG, JPEG, GIF or WebP image
+     */
+    public StoredImage store(InputStream content) throws IOException {
+        byte[] signature = content.readNBytes(SIGNATURE_LENGTH);
+        if (signature.length == 0) {
+            throw new InvalidProfileImageException("Profile image is empty");
+        }
+        String contentType = detectContentType(signature);
+        if (contentType == null) {
+            throw new InvalidProfileImageException("Profile image must be a PNG, JPEG, GIF or WebP image");
+        }
+
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            long size = signature.length;
+            digest.update(signature);
+            byte[] buffer = new byte[8192];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(signature);
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new InvalidProfileImageException("Profile image exceeds the maximum size of " + maxBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                move(temp, target);
+            }
+            return new StoredImage(hash, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Stores an image given as a base64 data URL ({@code data:image/png;base64,...}). The media type in
+     * the URL is ignored in favour of the one detected from the decoded bytes.
+     * @return hash and media type of the stored image
+     */
+    public StoredImage storeDataUrl(String dataUrl) throws IOException {
+        int comma = dataUrl.indexOf(',');
+        if (!dataUrl.startsWith("data:image/") || comma < 0 || !dataUrl.substring(0, comma).endsWith(";base64")) {
+            throw new InvalidProfileImageException("Profile image must be a base64 image data URL");
+        }
+        byte[] encoded = dataUrl.substring(comma + 1).getBytes(StandardCharsets.US_ASCII);
+        return store(Base64.getDecoder().wrap(new ByteArrayInputStream(encoded)));
+    }
+
+    /**
+     * @return whether a stored media type may be served inline as an image
+     */
+    public static boolean isAcceptedType(String contentType) {
+        return contentType != null && ACCEPTED_TYPES.contains(contentType);
+    }
+
+    private static String detectContentType(byte[] signature) {
+        if (startsWith(signature, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(signature, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(signature, 0, 'G', 'I', 'F', '8', '7', 'a') || startsWith(signature, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return "image/gif";
+        }
+        if (startsWith(signature, 0, 'R', 'I', 'F', 'F') && startsWith(signature, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... expected) {
+        if (data.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((data[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the file holding the image, if it is in the store
+     */
+    public Optional<Path> find(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathFor(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // A concurrent upload of the same image won; the content is identical
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.debug("Atomic move not supported for {}, copying instead", target);
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record StoredImage(String hash, String contentType) {
+    }
+}
@@ -2,36 +2,110 @@ package com.example.crud.service;
 
 import com.example.crud.model.BlacklistedToken;
 import com.example.crud.repository.BlacklistedTokenRepository;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.example.crud.security.services.AuthenticationCache;
+import com.example.crud.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Token revocation backed by {@code blacklisted_tokens}, answered from memory.
+ *
+ * Every revoked token is indexed by its SHA-256 digest in a Bloom filter and in an exact map of
+ * digest to expiry. Tokens that were never revoked are rejected by the filter, the few false
+ * positives are settled by the map, so lookups never reach the database. The index is loaded at
+ * startup and pruned together with the table in {@link #cleanupExpiredTokens()}.
+ */
 @Service
 public class TokenBlacklistService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
+
     @Autowired
     private BlacklistedTokenRepository blacklistedTokenRepository;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Value("${app.jwt.revocation.expected-tokens:100000}")
+    private long expectedTokens;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    @PostConstruct
+    public void loadRevokedTokens() {
+        for (BlacklistedToken blacklisted : blacklistedTokenRepository.findByExpiryDateAfter(new Date())) {
+            revokedTokens.put(encode(digest(blacklisted.getToken())), blacklisted.getExpiryDate().getTime());
+        }
+        rebuildFilter();
+        logger.info("Loaded {} revoked tokens into the revocation index", revokedTokens.size());
+    }
+
     @Transactional
     public void blacklistToken(String token, Date expiryDate) {
         if (!blacklistedTokenRepository.existsByToken(token)) {
             BlacklistedToken blacklistedToken = new BlacklistedToken(token, expiryDate);
             blacklistedTokenRepository.save(blacklistedToken);
         }
+        // Indexed before commit: a rolled back revocation only keeps rejecting a token that was meant to be revoked
+        byte[] digest = digest(token);
+        synchronized (this) {
+            revokedTokens.put(encode(digest), expiryDate.getTime());
+            filter.put(digest);
+        }
+        authenticationCache.invalidateToken(token);
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokenRepository.existsByToken(token);
+        byte[] digest = digest(token);
+        return filter.mightContain(digest) && revokedTokens.containsKey(encode(digest));
     }
 
     @Scheduled(cron = "0 0 * * * *") // Run every hour
     @Transactional
     public void cleanupExpiredTokens() {
-        blacklistedTokenRepository.deleteExpiredTokens(new Date());
+        Date now = new Date();
+        blacklistedTokenRepository.deleteExpiredTokens(now);
+        synchronized (this) {
+            revokedTokens.values().removeIf(expiry -> expiry < now.getTime());
+            rebuildFilter();
+        }
+    }
+
+    // A Bloom filter cannot forget entries, so pruning builds a new one from the remaining digests
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revokedTokens.size() * 2L), falsePositiveRate);
+        Base64.Decoder decoder = Base64.getDecoder();
+        revokedTokens.keySet().forEach(key -> rebuilt.put(decoder.decode(key)));
+        filter = rebuilt;
+    }
+
+    private static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String encode(byte[] digest) {
+        return Base64.getEncoder().encodeToString(digest);
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,12 @@
 package com.example.crud.service;
 
-import com.example.crud.model.User;
 import com.example.crud.model.UserStatus;
-import com.example.crud.repository.UserRepository;
+import com.example.crud.security.services.UserDetailsImpl;
+import com.example.crud.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -14,14 +15,14 @@ import java.util.Optional;
 public class UserPermissionService {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserDetailsServiceImpl userDetailsService;
 
     /**
      * Checks if the current authenticated user has full access
      * @return true if the user has full access (ACTIVE status)
      */
     public boolean hasFullAccess() {
-        Optional<User> currentUser = getCurrentUser();
+        Optional<UserDetailsImpl> currentUser = getCurrentUser();
         return currentUser.isPresent() && 
                (currentUser.get().getStatus() == null || currentUser.get().getStatus() == UserStatus.ACTIVE);
     }
@@ -31,7 +32,7 @@ public class UserPermissionService {
      * @return true if the user has read-only access (SUSPENDED status)
      */
     public boolean hasReadOnlyAccess() {
-        Optional<User> currentUser = getCurrentUser();
+        Optional<UserDetailsImpl> currentUser = getCurrentUser();
         return currentUser.isPresent() && 
                currentUser.get().getStatus() != null && 
                currentUser.get().getStatus() == UserStatus.SUSPENDED;
@@ -42,22 +43,29 @@ public class UserPermissionService {
      * @return true if the user is blocked (BLOCKED status)
      */
     public boolean isBlocked() {
-        Optional<User> currentUser = getCurrentUser();
+        Optional<UserDetailsImpl> currentUser = getCurrentUser();
         return currentUser.isPresent() && 
                currentUser.get().getStatus() != null && 
                currentUser.get().getStatus() == UserStatus.BLOCKED;
     }
     
     /**
-     * Gets the current authenticated user
-     * @return Optional containing the User if found
+     * Gets the current authenticated user, preferring the principal already resolved for this request
+     * @return Optional containing the user details if found
      */
-    private Optional<User> getCurrentUser() {
+    private Optional<UserDetailsImpl> getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated() || auth.getName().equals("anonymousUser")) {
             return Optional.empty();
         }
+        if (auth.getPrincipal() instanceof UserDetailsImpl) {
+            return Optional.of((UserDetailsImpl) auth.getPrincipal());
+        }
         
-        return userRepository.findByUsername(auth.getName());
+        try {
+            return Optional.of((UserDetailsImpl) userDetailsService.loadUserByUsername(auth.getName()));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
     }
-} 
\ No newline at end of file
+}
@@ -6,6 +6,10 @@ import com.example.crud.model.User;
 import com.example.crud.model.UserStatus;
 import com.example.crud.repository.RoleRepository;
 import com.example.crud.repository.UserRepository;
+import com.example.crud.repository.UserRepository.ProfileImageRef;
+import com.example.crud.security.services.AuthenticationCache;
+import com.example.crud.service.ProfileImageStore.StoredImage;
+import com.example.crud.util.TransactionCallbacks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
@@ -15,10 +19,13 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -44,6 +51,21 @@ public class UserService {
     @Autowired
     private UserSessionService userSessionService;
 
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Autowired
+    private ProfileImageStore profileImageStore;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private EncryptionMigrationService encryptionMigrationService;
+
     public List<User> getAllUsers() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         logService.addLog("READ", "USER", auth.getName(), "Retrieved list of all users");
@@ -74,6 +96,7 @@ public class UserService {
         User user = getUserById(id);
         String deletedUsername = user.getUsername();
         userRepository.deleteById(id);
+        authenticationCache.invalidateUser(deletedUsername);
         logService.addLog("DELETE", "USER", auth.getName(), 
             "Deleted user: " + deletedUsername + " (ID: " + id + ")");
     }
@@ -88,6 +111,7 @@ public class UserService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        authenticationCache.invalidateUser(user.getUsername());
         logService.addLog("UPDATE", "USER", user.getUsername(), 
             "Password updated for user: " + user.getUsername() + " (ID: " + userId + ")");
     }
@@ -98,6 +122,7 @@ public class UserService {
         User user = getUserById(userId);
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        authenticationCache.invalidateUser(user.getUsername());
         logService.addLog("UPDATE", "USER", auth.getName(), 
             "Password reset for user: " + user.getUsername() + " (ID: " + userId + ")");
     }
@@ -116,6 +141,7 @@ public class UserService {
         
         user.setRoles(roles);
         User savedUser = userRepository.save(user);
+        authenticationCache.invalidateUser(user.getUsername());
         
         logService.addLog("UPDATE", "USER", auth.getName(), 
             "Updated roles for user: " + user.getUsername() + " (ID: " + userId + ") from [" + oldRoles + "] to [" + newRolesStr + "]");
@@ -168,6 +194,7 @@ public class UserService {
         user.setStatusReason(reason);
         
         User savedUser = userRepository.save(user);
+        authenticationCache.invalidateUser(user.getUsername());
         
         logService.addLog("UPDATE", "USER", auth.getName(), 
             "Updated user status: " + user.getUsername() + " (ID: " + id + ") from [" + 
@@ -185,11 +212,30 @@ public class UserService {
         return user.getStatus() == UserStatus.SUSPENDED;
     }
 
+    /**
+     * Stores an uploaded image and points the user at it. The media type is detected from the image
+     * bytes; the one the client declared is not trusted.
+     */
+    @Transactional
+    public User updateProfileImage(Long userId, InputStream content) throws IOException {
+        StoredImage image = profileImageStore.store(content);
+        return setProfileImage(userId, image.hash(), image.contentType());
+    }
+
+    /**
+     * Accepts the image as a base64 data URL, as sent by older clients.
+     */
     @Transactional
-    public User updateProfileImage(Long userId, String profileImage) {
+    public User updateProfileImage(Long userId, String dataUrl) throws IOException {
+        StoredImage image = profileImageStore.storeDataUrl(dataUrl);
+        return setProfileImage(userId, image.hash(), image.contentType());
+    }
+
+    private User setProfileImage(Long userId, String hash, String contentType) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         User user = getUserById(userId);
-        user.setProfileImage(profileImage);
+        user.setProfileImageHash(hash);
+        user.setProfileImageType(contentType);
         User savedUser = userRepository.save(user);
         
         logService.addLog("UPDATE", "USER", auth.getName(), 
@@ -197,32 +243,35 @@ public class UserService {
         
         return savedUser;
     }
+
+    public Optional<ProfileImageRef> getProfileImage(Long userId) {
+        return userRepository.findProfileImageById(userId)
+                .filter(image -> image.getHash() != null);
+    }
     
+    /**
+     * Counts a failed sign-in in memory and locks the account once it reaches the threshold.
+     * @return true if this failure locked the account
+     */
     @Transactional
-    public void incrementFailedLoginAttempts(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        
-        int attempts = user.getFailedLoginAttempts() == null ? 0 : user.getFailedLoginAttempts();
-        user.setFailedLoginAttempts(attempts + 1);
-        user.setLastFailedLoginTime(LocalDateTime.now());
-        
-        // Lock account if failed attempts exceed threshold
-        if (user.getFailedLoginAttempts() >= MAX_FAILED_ATTEMPTS) {
-            lockUserAccount(user);
+    public boolean recordFailedLogin(String username) {
+        int failures = loginAttemptService.loginFailed(username);
+        if (failures < MAX_FAILED_ATTEMPTS) {
+            return false;
         }
-        
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            return false;
+        }
+        user.setFailedLoginAttempts(failures);
+        user.setLastFailedLoginTime(LocalDateTime.now());
+        lockUserAccount(user);
         userRepository.save(user);
+        return true;
     }
     
-    @Transactional
-    public void resetFailedLoginAttempts(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        
-        user.setFailedLoginAttempts(0);
-        user.setLastFailedLoginTime(null);
-        userRepository.save(user);
+    public void recordSuccessfulLogin(String username) {
+        loginAttemptService.loginSucceeded(username);
     }
     
     @Transactional
@@ -230,6 +279,7 @@ public class UserService {
         user.setStatus(UserStatus.BLOCKED);
         user.setStatusReason("Account locked due to " + MAX_FAILED_ATTEMPTS + " failed login attempts");
         userSessionService.invalidateAllUserSessions(user.getId());
+        authenticationCache.invalidateUser(user.getUsername());
         
         logService.addLog("UPDATE", "USER", "SYSTEM", 
             "Account locked automatically for user: " + user.getUsername() + 
@@ -247,25 +297,42 @@ public class UserService {
         user.setLastFailedLoginTime(null);
         user.setAccountExpiresAt(LocalDateTime.now().plusYears(1));
         userRepository.save(user);
+        authenticationCache.invalidateUser(user.getUsername());
+        String username = user.getUsername();
+        TransactionCallbacks.afterCommit(() -> loginAttemptService.accountUnlocked(username));
         
         logService.addLog("UPDATE", "USER", auth.getName(), 
             "Account unlocked for user: " + user.getUsername() + " (ID: " + userId + ")");
     }
     
-    public boolean isAccountLocked(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-                
-        return user.getStatus() == UserStatus.BLOCKED;
-    }
-
     @Transactional
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        authenticationCache.invalidateUser(savedUser.getUsername());
+        return savedUser;
     }
     
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return findOptionalByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
+
+    /**
+     * Looks a user up by email. Until the re-encryption has completed for the current key, rows may
+     * still hold the email as plain text, legacy ciphertext or under a previous key, so every stored
+     * form of the address is matched.
+     */
+    public Optional<User> findOptionalByEmail(String email) {
+        if (encryptionMigrationService.isCompleted()) {
+            return userRepository.findByEmail(email);
+        }
+        return userRepository.findByStoredEmailIn(encryptionService.storedForms(email)).stream().findFirst();
+    }
+
+    public boolean existsByEmail(String email) {
+        if (encryptionMigrationService.isCompleted()) {
+            return userRepository.existsByEmail(email);
+        }
+        return !userRepository.findByStoredEmailIn(encryptionService.storedForms(email)).isEmpty();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.crud.util;
+
+import com.example.crud.exception.InvalidPaginationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * The token is a URL-safe Base64 encoding of the sort key values of the last row on a page,
+ * so clients can pass it back verbatim without knowing how the listing is ordered.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "\u001F";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String... values) {
+        String joined = String.join(SEPARATOR, values);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode(String...)}.
+     * @throws InvalidPaginationException if the token is malformed or has the wrong number of values
+     */
+    public static String[] decode(String token, int expectedValues) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPaginationException("Invalid pagination cursor");
+        }
+        String[] values = decoded.split(SEPARATOR, -1);
+        if (values.length != expectedValues) {
+            throw new InvalidPaginationException("Invalid pagination cursor");
+        }
+        return values;
+    }
+
+    /**
+     * Resolves an id-based cursor. Accepts either a raw numeric id or a token from {@link #encode(String...)}.
+     */
+    public static Long decodeId(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String value = token.chars().allMatch(Character::isDigit) ? token : decode(token, 1)[0];
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidPaginationException("Invalid pagination cursor");
+        }
+    }
+}
@@ -4,25 +4,18 @@ import com.example.crud.service.EncryptionService;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 @Converter
 @Component
 public class StringEncryptedConverter implements AttributeConverter<String, String> {
 
-    private static ApplicationContext context;
+    // Hibernate may create its own converter instances, so the service is shared through a static field
+    private static volatile EncryptionService encryptionService;
 
     @Autowired
-    public void setApplicationContext(ApplicationContext applicationContext) {
-        StringEncryptedConverter.context = applicationContext;
-    }
-
-    private EncryptionService getEncryptionService() {
-        if (context == null) {
-            return null; // This will happen during application startup
-        }
-        return context.getBean(EncryptionService.class);
+    public void setEncryptionService(EncryptionService encryptionService) {
+        StringEncryptedConverter.encryptionService = encryptionService;
     }
 
     @Override
@@ -31,12 +24,12 @@ public class StringEncryptedConverter implements AttributeConverter<String, Stri
             return null;
         }
         
-        EncryptionService encryptionService = getEncryptionService();
-        if (encryptionService == null) {
+        EncryptionService service = encryptionService;
+        if (service == null) {
             return attribute; // During startup/migration, return unencrypted
         }
         
-        return encryptionService.encrypt(attribute);
+        return service.encryptForStorage(attribute);
     }
 
     @Override
@@ -45,16 +38,12 @@ public class StringEncryptedConverter implements AttributeConverter<String, Stri
             return null;
         }
         
-        EncryptionService encryptionService = getEncryptionService();
-        if (encryptionService == null) {
+        EncryptionService service = encryptionService;
+        if (service == null) {
             return dbData; // During startup/migration, return as is
         }
         
-        try {
-            return encryptionService.decrypt(dbData);
-        } catch (Exception e) {
-            // If decryption fails, it might be plain text data
-            return dbData;
-        }
+        // Plain text is recognised by its shape and returned as is
+        return service.decryptStoredValue(dbData);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,2 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_image_hash VARCHAR(64) NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_image_type VARCHAR(100) NULL;
@@ -0,0 +1,4 @@
+-- Pooled id sequences for products and users (allocation size 50, see @SequenceGenerator).
+-- The identity columns stay in place; DatabaseInitializer restarts the sequences above the existing ids on startup.
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50; 
\ No newline at end of file
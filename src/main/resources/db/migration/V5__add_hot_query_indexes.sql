@@ -0,0 +1,23 @@
+-- Indexes for the hot read paths. The id column is appended where a query orders by it or uses it as
+-- the keyset tie-breaker, so those queries can read a page straight from the index.
+
+-- Products by creator (findByCreatedBy, findProductSummariesByCreator)
+CREATE INDEX IF NOT EXISTS idx_products_created_by ON products (created_by_id, id);
+-- Search: price and quantity ranges and the keyset-paged sort keys
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price, id);
+CREATE INDEX IF NOT EXISTS idx_products_quantity ON products (quantity, id);
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (name, id);
+CREATE INDEX IF NOT EXISTS idx_products_updated_when ON products (updated_when, id);
+
+-- Audit log by user and newest first
+CREATE INDEX IF NOT EXISTS idx_operation_logs_performed_by ON operation_logs (performed_by, timestamp);
+CREATE INDEX IF NOT EXISTS idx_operation_logs_entity_type ON operation_logs (entity_type, timestamp);
+CREATE INDEX IF NOT EXISTS idx_operation_logs_timestamp ON operation_logs (timestamp);
+
+-- Application log by level and newest first
+CREATE INDEX IF NOT EXISTS idx_application_logs_level ON application_logs (level, timestamp);
+CREATE INDEX IF NOT EXISTS idx_application_logs_timestamp ON application_logs (timestamp);
+
+-- Session lookups by token and by user
+CREATE INDEX IF NOT EXISTS idx_user_sessions_token ON user_sessions (token);
+CREATE INDEX IF NOT EXISTS idx_user_sessions_user_id ON user_sessions (user_id);
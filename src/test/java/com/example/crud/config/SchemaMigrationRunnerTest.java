@@ -0,0 +1,90 @@
+package com.example.crud.config;
+
+import com.example.crud.model.Product;
+import com.example.crud.model.User;
+import com.example.crud.repository.ProductRepository;
+import com.example.crud.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application against a database in the state it was in before the versioned migrations
+ * (db/pre-series-schema.sql, no migration history, Hibernate not touching the schema), as an existing
+ * production database would be, and checks that every migration past the baseline is applied and that
+ * new rows are numbered after the existing ones.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:preseries;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.pool-name=PreSeriesHikariPool",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/pre-series-schema.sql"
+})
+@ActiveProfiles("test")
+class SchemaMigrationRunnerTest {
+
+    @Autowired
+    private SchemaMigrationRunner schemaMigrationRunner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void migrationsAfterTheBaselineAreApplied() {
+        List<Map<String, Object>> history = schemaMigrationRunner.getAppliedMigrations();
+
+        assertThat(history).extracting(row -> ((Number) row.get("version")).intValue())
+                .containsExactly(2, 3, 4, 5);
+        assertThat(history.get(0).get("description")).isEqualTo("<< baseline >>");
+    }
+
+    @Test
+    void profileImageColumnsAreAdded() {
+        assertThat(count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'USERS' " +
+                "AND COLUMN_NAME IN ('PROFILE_IMAGE_HASH', 'PROFILE_IMAGE_TYPE')")).isEqualTo(2);
+    }
+
+    @Test
+    void idSequencesAreCreated() {
+        assertThat(count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES " +
+                "WHERE SEQUENCE_NAME IN ('PRODUCTS_SEQ', 'USERS_SEQ')")).isEqualTo(2);
+    }
+
+    @Test
+    void hotQueryIndexesAreCreated() {
+        assertThat(count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE INDEX_NAME IN ('IDX_PRODUCTS_PRICE', 'IDX_USER_SESSIONS_TOKEN')")).isEqualTo(2);
+    }
+
+    @Test
+    void newRowsGetIdsAboveTheLegacyIds() {
+        Product product = new Product();
+        product.setName("New lamp");
+        product.setPrice(new BigDecimal("12.00"));
+        product.setQuantity(1);
+        Product saved = productRepository.save(product);
+        User user = userRepository.save(new User("new-user", "new-user@example.com", "secret"));
+
+        assertThat(saved.getId()).isGreaterThan(3L);
+        assertThat(user.getId()).isGreaterThan(3L);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.crud.repository;
+
+import com.example.crud.model.ApplicationLog;
+import com.example.crud.model.Log;
+import com.example.crud.model.Product;
+import com.example.crud.model.User;
+import com.example.crud.model.UserSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explain-plan regression test for the hot repository queries: the SQL Hibernate generates for each
+ * of them must be answered from an index (the migrations in db/migration), never by a table scan.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.crud.repository.RecordingStatementInspector")
+@ActiveProfiles("test")
+class QueryPlanIndexTest {
+
+    private static final int ROWS = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LogRepository logRepository;
+
+    @Autowired
+    private ApplicationLogRepository applicationLogRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User creator;
+    private List<Product> products;
+    private List<Log> logs;
+    private List<ApplicationLog> applicationLogs;
+    private List<UserSession> sessions;
+
+    @BeforeEach
+    void setUp() {
+        creator = userRepository.save(new User("query-plan-creator", "plan@example.com", "secret"));
+
+        products = new ArrayList<>();
+        logs = new ArrayList<>();
+        applicationLogs = new ArrayList<>();
+        sessions = new ArrayList<>();
+        Date expiry = new Date(System.currentTimeMillis() + 3_600_000);
+        for (int i = 1; i <= ROWS; i++) {
+            Product product = new Product();
+            product.setName("plan-item-" + i);
+            product.setDescription("Query plan fixture");
+            product.setPrice(BigDecimal.valueOf(i));
+            product.setQuantity(i);
+            product.setCreatedBy(i % 20 == 0 ? creator : null);
+            product.setCreatedWhen(LocalDateTime.now());
+            product.setUpdatedWhen(LocalDateTime.now());
+            products.add(product);
+
+            logs.add(new Log("READ", i % 2 == 0 ? "PRODUCT" : "USER", "plan-user-" + (i % 20), "Query plan fixture"));
+            applicationLogs.add(new ApplicationLog(i % 20 == 0 ? "ERROR" : "INFO", "plan.logger", "Query plan fixture", null));
+            sessions.add(new UserSession(1_000_000L + i, "plan-token-" + i, expiry));
+        }
+        products = productRepository.saveAll(products);
+        logs = logRepository.saveAll(logs);
+        applicationLogs = applicationLogRepository.saveAll(applicationLogs);
+        sessions = userSessionRepository.saveAll(sessions);
+
+        // Fresh statistics, so the planner knows the selectivity of each column
+        jdbcTemplate.execute("ANALYZE");
+        RecordingStatementInspector.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll(products);
+        logRepository.deleteAll(logs);
+        applicationLogRepository.deleteAll(applicationLogs);
+        userSessionRepository.deleteAll(sessions);
+        userRepository.delete(creator);
+    }
+
+    @Test
+    void productsByCreatorUseAnIndex() {
+        productRepository.findByCreatedBy(creator);
+
+        assertUsesIndex(RecordingStatementInspector.lastSelectFrom("products"), creator.getId());
+    }
+
+    @Test
+    void productPriceRangeUsesAnIndex() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria();
+        criteria.setMinPrice(BigDecimal.valueOf(190));
+        criteria.setSort(ProductSearchCriteria.SortKey.PRICE);
+        productRepository.findProductSummaryPage(criteria, 11);
+
+        assertUsesIndex(RecordingStatementInspector.lastSelectFrom("products"), BigDecimal.valueOf(190), 11);
+    }
+
+    @Test
+    void productQuantityRangeUsesAnIndex() {
+        ProductSearchCriteria criteria = new ProductSearchCriteria();
+        criteria.setMinQuantity(190);
+        criteria.setSort(ProductSearchCriteria.SortKey.QUANTITY);
+        productRepository.findProductSummaryPage(criteria, 11);
+
+        assertUsesIndex(RecordingStatementInspector.lastSelectFrom("products"), 190, 11);
+    }
+
+    @Test
+    void operationLogsByUserUseAnIndex() {
+        logRepository.findByPerformedByOrderByTimestampDesc("plan-user-3");
+
+        assertUsesIndex(RecordingStatementInspector.lastSelectFrom("operation_logs"), "plan-user-3");
+    }
+
+    @Test
+    void applicationLogsByLevelUseAnIndex() {
+        applicationLogRepository.findByLevelOrderByTimestampDesc("ERROR");
+
+        assertUsesIndex(RecordingStatementInspector.lastSelectFrom("application_logs"), "ERROR");
+    }
+
+    @Test
+    void sessionByTokenUsesAnIndex() {
+        userSessionRepository.findByToken("plan-token-42");
+
+        assertUsesIndex(RecordingStatementInspector.lastSelectFrom("user_sessions"), "plan-token-42");
+    }
+
+    @Test
+    void sessionByUserUsesAnIndex() {
+        userSessionRepository.findByUserId(1_000_042L);
+
+        assertUsesIndex(RecordingStatementInspector.lastSelectFrom("user_sessions"), 1_000_042L);
+    }
+
+    private void assertUsesIndex(String sql, Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+        assertThat(plan)
+                .as("plan of %s", sql)
+                .doesNotContainIgnoringCase("tableScan");
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.crud.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL Hibernate prepares so tests can inspect the statements behind repository methods.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        statements.clear();
+    }
+
+    /**
+     * @return the most recent SELECT reading from {@code table}
+     */
+    static String lastSelectFrom(String table) {
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            String sql = statements.get(i);
+            String lower = sql.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("select") && lower.contains(" from " + table + " ")) {
+                return sql;
+            }
+        }
+        throw new AssertionError("No SELECT from " + table + " was recorded");
+    }
+}
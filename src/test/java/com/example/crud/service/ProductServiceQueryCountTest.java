@@ -0,0 +1,142 @@
+package com.example.crud.service;
+
+import com.example.crud.config.CacheConfig;
+import com.example.crud.model.Product;
+import com.example.crud.model.User;
+import com.example.crud.payload.response.ProductResponse;
+import com.example.crud.repository.ProductRepository;
+import com.example.crud.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the product read paths against N+1 lookups of the creator/updater users:
+ * the number of JDBC statements must not grow with the number of products returned.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@WithMockUser(username = "query-count-creator")
+class ProductServiceQueryCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User creator;
+    private User updater;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        creator = userRepository.save(new User("query-count-creator", "creator@example.com", "secret"));
+        updater = userRepository.save(new User("query-count-updater", "updater@example.com", "secret"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        userRepository.delete(creator);
+        userRepository.delete(updater);
+    }
+
+    @Test
+    void getAllProductsUsesConstantNumberOfStatements() {
+        createProducts(3);
+        long small = countStatements(() -> productService.getAllProducts());
+
+        createProducts(20);
+        long large = countStatements(() -> productService.getAllProducts());
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void getProductsByUserUsesConstantNumberOfStatements() {
+        createProducts(3);
+        long small = countStatements(() -> productService.getProductsByUser(creator.getUsername()));
+
+        createProducts(20);
+        long large = countStatements(() -> productService.getProductsByUser(creator.getUsername()));
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void searchProductsUsesConstantNumberOfStatements() {
+        List<ProductResponse> results = new ArrayList<>();
+
+        createProducts(3);
+        refreshSearch();
+        long small = countStatements(() ->
+                results.addAll(productService.searchProducts("item", null, null, null, null, null)));
+        assertThat(results).hasSize(3);
+
+        results.clear();
+        createProducts(20);
+        refreshSearch();
+        long large = countStatements(() ->
+                results.addAll(productService.searchProducts("item", null, null, null, null, null)));
+        assertThat(results).hasSize(23);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Fixtures are saved through the repository, which neither indexes them nor invalidates cached searches
+    private void refreshSearch() {
+        productSearchIndex.rebuild();
+        cacheManager.getCache(CacheConfig.PRODUCT_SEARCHES_CACHE).clear();
+    }
+
+    private void createProducts(int count) {
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("item-" + i);
+            product.setDescription("Query count fixture");
+            product.setPrice(BigDecimal.TEN);
+            product.setQuantity(1);
+            product.setCreatedBy(creator);
+            product.setUpdatedBy(updater);
+            product.setCreatedWhen(LocalDateTime.now());
+            product.setUpdatedWhen(LocalDateTime.now());
+            productRepository.save(product);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- Schema as it stood before the versioned migrations V3 and later (V1 and V2 applied), with a few rows
+-- whose ids were assigned by the identity columns.
+create table application_logs (id bigint generated by default as identity, timestamp timestamp(6) not null, level varchar(255) not null, logger varchar(255) not null, message TEXT not null, stack_trace TEXT, primary key (id));
+create table blacklisted_tokens (expiry_date timestamp(6) not null, id bigint generated by default as identity, token varchar(500) not null unique, primary key (id));
+create table menu_preferences (display_order integer not null, expanded boolean not null, id bigint generated by default as identity, user_id bigint not null, menu_data TEXT not null, menu_key varchar(255) not null, primary key (id));
+create table operation_logs (id bigint generated by default as identity, timestamp timestamp(6) not null, details varchar(255), entity_type varchar(255) not null, operation_type varchar(255) not null, performed_by varchar(255) not null, primary key (id));
+create table products (price numeric(38,2) not null, quantity integer not null, created_by_id bigint, created_when timestamp(6), editing_by_id bigint, editing_since timestamp(6), id bigint generated by default as identity, updated_by_id bigint, updated_when timestamp(6), version bigint, description varchar(1000), name varchar(255) not null, primary key (id));
+create table roles (id bigint generated by default as identity, name varchar(20) check (name in ('ROLE_USER','ROLE_ADMIN')), primary key (id));
+create table user_recovery_codes (user_id bigint not null, recovery_code varchar(255));
+create table user_roles (role_id bigint not null, user_id bigint not null, primary key (role_id, user_id));
+create table user_sessions (expiry_date timestamp(6) not null, id bigint generated by default as identity, user_id bigint not null, token varchar(500) not null, primary key (id));
+create table users (failed_login_attempts integer, mfa_enabled boolean not null, account_expires_at timestamp(6), id bigint generated by default as identity, last_failed_login_time timestamp(6), username varchar(20), password varchar(120), email varchar(255), mfa_secret varchar(255), profile_image TEXT, status varchar(255) check (status in ('ACTIVE','SUSPENDED','BLOCKED')), status_reason varchar(255), primary key (id), unique (username), unique (email));
+alter table if exists menu_preferences add constraint FKf03vislkcuk2uj92tak356me5 foreign key (user_id) references users;
+alter table if exists products add constraint FK6ykwv1yyi4wy9r98ctn3qe2mh foreign key (created_by_id) references users;
+alter table if exists products add constraint FKiq4urk61jyaely8w9b2iho5m7 foreign key (editing_by_id) references users;
+alter table if exists products add constraint FKnncgn4kt2d3p28rcfomnw20tp foreign key (updated_by_id) references users;
+alter table if exists user_recovery_codes add constraint FKsbj9hb8x8q0v40p3pp4qlytwa foreign key (user_id) references users;
+alter table if exists user_roles add constraint FKh8ciramu9cc9q3qcqiv4ue8a6 foreign key (role_id) references roles;
+alter table if exists user_roles add constraint FKhfh9dx7w3ubf1co1vdev94g3f foreign key (user_id) references users;
+
+insert into roles (id, name) values (1, 'ROLE_USER'), (2, 'ROLE_ADMIN');
+insert into users (id, username, email, password, mfa_enabled, failed_login_attempts, status)
+values (1, 'admin', 'admin@example.com', 'secret', false, 0, 'ACTIVE'),
+       (2, 'legacy-user', 'legacy-user@example.com', 'secret', false, 0, 'ACTIVE'),
+       (3, 'legacy-editor', 'legacy-editor@example.com', 'secret', false, 0, 'ACTIVE');
+insert into user_roles (user_id, role_id) values (1, 2), (2, 1), (3, 1);
+insert into products (id, name, description, price, quantity, version, created_by_id, created_when, updated_when)
+values (1, 'Legacy lamp', 'Created before the migrations', 10.00, 5, 0, 1, current_timestamp, current_timestamp),
+       (2, 'Legacy desk', 'Created before the migrations', 120.00, 2, 0, 1, current_timestamp, current_timestamp),
+       (3, 'Legacy chair', 'Created before the migrations', 45.50, 8, 0, 3, current_timestamp, current_timestamp);